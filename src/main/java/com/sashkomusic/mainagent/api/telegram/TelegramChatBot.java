@@ -3,6 +3,7 @@ package com.sashkomusic.mainagent.api.telegram;
 import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
 import com.sashkomusic.mainagent.domain.exception.SearchSessionExpiredException;
 import com.sashkomusic.mainagent.domain.service.UserInteractionOrchestrator;
+import com.sashkomusic.mainagent.infrastracture.client.coverart.CoverArtCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -13,8 +14,11 @@ import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateC
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.api.objects.photo.PhotoSize;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardRow;
@@ -22,6 +26,8 @@ import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,16 +35,28 @@ import java.util.Map;
 @Slf4j
 public class TelegramChatBot implements SpringLongPollingBot, LongPollingSingleThreadUpdateConsumer {
     private static final int MAX_TEXT_LENGTH = 4096;
+    private static final int MAX_EDITABLE_MESSAGES = 500;
     private final UserInteractionOrchestrator orchestrator;
     private final TelegramClient client;
+    private final CoverArtCache coverArtCache;
     private final String botToken;
+    // chatId:editKey -> message id of the last message sent for that key
+    private final Map<String, Integer> editableMessages = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > MAX_EDITABLE_MESSAGES;
+                }
+            });
 
     public TelegramChatBot(@Value("${telegram.bot.token}") String token,
                            UserInteractionOrchestrator orchestrator,
-                           TelegramClient telegramClient) {
+                           TelegramClient telegramClient,
+                           CoverArtCache coverArtCache) {
         this.botToken = token;
         this.client = telegramClient;
         this.orchestrator = orchestrator;
+        this.coverArtCache = coverArtCache;
     }
 
     @Override
@@ -83,18 +101,22 @@ public class TelegramChatBot implements SpringLongPollingBot, LongPollingSingleT
 
     public void sendResponse(long chatId, BotResponse response) {
         var keyboardMarkup = createKeyboard(response.buttons(), response.buttonRows());
-        boolean hasImage = response.imageUrl() != null && !response.imageUrl().isBlank();
+        if (response.editKey() != null && editMessage(chatId, response, keyboardMarkup)) {
+            return;
+        }
+        InputFile cover = resolveCover(response.imageUrl());
 
-        if (hasImage) {
+        if (cover != null) {
             try {
                 SendPhoto photo = SendPhoto.builder()
                         .chatId(chatId)
-                        .photo(new InputFile(response.imageUrl()))
+                        .photo(cover)
                         .caption(response.text())
                         .parseMode("Markdown")
                         .replyMarkup(keyboardMarkup)
                         .build();
-                client.execute(photo);
+                Message sent = client.execute(photo);
+                rememberUploadedCover(response.imageUrl(), cover, sent);
                 return;
 
             } catch (TelegramApiException e) {
@@ -110,7 +132,7 @@ public class TelegramChatBot implements SpringLongPollingBot, LongPollingSingleT
                     .parseMode("Markdown")
                     .replyMarkup(keyboardMarkup)
                     .build();
-            client.execute(message);
+            rememberEditable(chatId, response, client.execute(message));
         } catch (TelegramApiException e) {
             log.error("❌ Failed to send with Markdown parsing to [{}]: {}. Retrying as plain text",
                     chatId, e.getMessage());
@@ -121,7 +143,7 @@ public class TelegramChatBot implements SpringLongPollingBot, LongPollingSingleT
                         .text(response.text())
                         .replyMarkup(keyboardMarkup)
                         .build();
-                client.execute(plainMessage);
+                rememberEditable(chatId, response, client.execute(plainMessage));
                 log.info("✅ Successfully sent as plain text");
             } catch (TelegramApiException ex) {
                 log.error("❌ Failed to send even as plain text to [{}]: {}", chatId, ex.getMessage());
@@ -129,6 +151,63 @@ public class TelegramChatBot implements SpringLongPollingBot, LongPollingSingleT
         }
     }
 
+    private boolean editMessage(long chatId, BotResponse response, InlineKeyboardMarkup keyboardMarkup) {
+        Integer messageId = editableMessages.get(chatId + ":" + response.editKey());
+        if (messageId == null) {
+            return false;
+        }
+        try {
+            client.execute(EditMessageText.builder()
+                    .chatId(chatId)
+                    .messageId(messageId)
+                    .text(response.text())
+                    .parseMode("Markdown")
+                    .replyMarkup(keyboardMarkup)
+                    .build());
+            return true;
+        } catch (TelegramApiException e) {
+            if (e.getMessage() != null && e.getMessage().contains("message is not modified")) {
+                return true;
+            }
+            log.warn("⚠️ Could not edit message {} in [{}]: {}. Sending a new one", messageId, chatId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void rememberEditable(long chatId, BotResponse response, Message sent) {
+        if (response.editKey() != null && sent != null) {
+            editableMessages.put(chatId + ":" + response.editKey(), sent.getMessageId());
+        }
+    }
+
+    /**
+     * Prefers a cover Telegram already has, then the locally cached file, then the remote URL.
+     * Never waits for a download; covers known to be broken are skipped so the card goes out as text right away.
+     */
+    private InputFile resolveCover(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return null;
+        }
+        var fileId = coverArtCache.telegramFileId(imageUrl);
+        if (fileId.isPresent()) {
+            return new InputFile(fileId.get());
+        }
+        var cached = coverArtCache.cached(imageUrl);
+        if (cached.isPresent()) {
+            return new InputFile(cached.get().toFile());
+        }
+        return coverArtCache.isKnownBroken(imageUrl) ? null : new InputFile(imageUrl);
+    }
+
+    private void rememberUploadedCover(String imageUrl, InputFile cover, Message sent) {
+        if (!cover.isNew() || sent == null || sent.getPhoto() == null || sent.getPhoto().isEmpty()) {
+            return;
+        }
+        // Telegram returns every size it generated; the last one is the largest
+        PhotoSize largest = sent.getPhoto().getLast();
+        coverArtCache.rememberTelegramFileId(imageUrl, largest.getFileId());
+    }
+
     public void sendMessage(long chatId, String text) {
         if (text != null && text.length() > MAX_TEXT_LENGTH) {
             List<String> chunks = splitTextIntoChunks(text, MAX_TEXT_LENGTH);
@@ -7,22 +7,30 @@ public record BotResponse(
         String text,
         String imageUrl,
         Map<String, String> buttons,
-        List<List<ButtonDto>> buttonRows
+        List<List<ButtonDto>> buttonRows,
+        String editKey
 ) {
     public static BotResponse text(String text) {
-        return new BotResponse(text, null, null, null);
+        return new BotResponse(text, null, null, null, null);
     }
 
     public static BotResponse withButtons(String text, Map<String, String> buttons) {
-        return new BotResponse(text, null, buttons, null);
+        return new BotResponse(text, null, buttons, null, null);
     }
 
     public static BotResponse card(String text, String imageUrl, Map<String, String> buttons) {
-        return new BotResponse(text, imageUrl, buttons, null);
+        return new BotResponse(text, imageUrl, buttons, null, null);
     }
 
     public static BotResponse withMultiRowButtons(String text, List<List<ButtonDto>> buttonRows) {
-        return new BotResponse(text, null, null, buttonRows);
+        return new BotResponse(text, null, null, buttonRows, null);
+    }
+
+    /**
+     * Text message that replaces the one previously sent with the same key in this chat, if there is one.
+     */
+    public BotResponse editing(String editKey) {
+        return new BotResponse(text, imageUrl, buttons, buttonRows, editKey);
     }
 
     public record ButtonDto(String label, String callbackData) {}
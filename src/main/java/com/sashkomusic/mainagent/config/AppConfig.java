@@ -1,5 +1,6 @@
 package com.sashkomusic.mainagent.config;
 
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
@@ -8,8 +9,10 @@ import org.springframework.web.client.RestClient;
 public class AppConfig {
 
     @Bean
-    public RestClient restClient() {
-        return RestClient.create();
+    public RestClient restClient(HttpClientFactory httpClients) {
+        return RestClient.builder()
+                .requestFactory(httpClients.requestFactory("default"))
+                .build();
     }
 }
 
@@ -0,0 +1,67 @@
+package com.sashkomusic.mainagent.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientConfig {
+
+    private Settings defaults = Settings.standard();
+
+    /**
+     * Per-integration overrides keyed by client name (musicbrainz, discogs, bandcamp, ...).
+     */
+    private Map<String, Settings> clients = new HashMap<>();
+
+    public Settings forClient(String name) {
+        Settings override = clients.get(name);
+        return override == null ? defaults : defaults.overriddenBy(override);
+    }
+
+    @Setter
+    @Getter
+    public static class Settings {
+
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        private Duration poolTimeout;
+        private Duration idleTimeout;
+        private Integer maxConnections;
+        private Integer maxConnectionsPerRoute;
+        private Boolean compression;
+
+        static Settings standard() {
+            Settings settings = new Settings();
+            settings.connectTimeout = Duration.ofSeconds(5);
+            settings.readTimeout = Duration.ofSeconds(30);
+            settings.poolTimeout = Duration.ofSeconds(10);
+            settings.idleTimeout = Duration.ofSeconds(30);
+            settings.maxConnections = 20;
+            settings.maxConnectionsPerRoute = 10;
+            settings.compression = true;
+            return settings;
+        }
+
+        Settings overriddenBy(Settings override) {
+            Settings merged = new Settings();
+            merged.connectTimeout = override.connectTimeout != null ? override.connectTimeout : connectTimeout;
+            merged.readTimeout = override.readTimeout != null ? override.readTimeout : readTimeout;
+            merged.poolTimeout = override.poolTimeout != null ? override.poolTimeout : poolTimeout;
+            merged.idleTimeout = override.idleTimeout != null ? override.idleTimeout : idleTimeout;
+            merged.maxConnections = override.maxConnections != null ? override.maxConnections : maxConnections;
+            merged.maxConnectionsPerRoute = override.maxConnectionsPerRoute != null
+                    ? override.maxConnectionsPerRoute : maxConnectionsPerRoute;
+            merged.compression = override.compression != null ? override.compression : compression;
+            return merged;
+        }
+    }
+}
@@ -17,7 +17,9 @@ public class SearchEngineConfig {
         return services.stream()
                 .collect(Collectors.toMap(
                         SearchEngineService::getSource,
-                        service -> service
+                        service -> service,
+                        // Services arrive in @Order; a local engine shadows the remote one for the same source
+                        (first, second) -> first
                 ));
     }
 }
\ No newline at end of file
@@ -77,8 +77,8 @@ public record MetadataSearchRequest(
     public MetadataSearchRequest withAuthor(String author) {
         return new MetadataSearchRequest(
                 this.id,
-                this.artist,
                 author,
+                this.release,
                 this.recording,
                 this.dateRange,
                 this.format,
@@ -3,6 +3,15 @@ package com.sashkomusic.mainagent.domain.model;
 public record TrackMetadata(
         int number,
         String artist,
-        String title
+        String title,
+        Integer durationSeconds // null when the source has no length
 ) {
+
+    public TrackMetadata(int number, String artist, String title) {
+        this(number, artist, title, null);
+    }
+
+    public TrackMetadata withArtist(String artist) {
+        return new TrackMetadata(number, artist, title, durationSeconds);
+    }
 }
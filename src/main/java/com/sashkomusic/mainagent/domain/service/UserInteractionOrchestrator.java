@@ -65,7 +65,13 @@ public class UserInteractionOrchestrator {
         if (data.startsWith("SEARCH_ALT:")) {
             return musicDownloadFlowService.handleSearchAlternative(chatId, data);
         }
-        if (data.startsWith("DL:")) {
+        if (data.startsWith("DL_REFRESH:")) {
+            return musicDownloadFlowService.handleRefresh(chatId, data);
+        }
+        if (data.startsWith("DL_BEST:")) {
+            return musicDownloadFlowService.handleBestOption(chatId, data);
+        }
+        if (data.startsWith("DL:") || data.startsWith("DL_FORCE:")) {
             return musicDownloadFlowService.handleDownload(chatId, data);
         }
         if (data.equals("DIG_DEEPER")) {
@@ -0,0 +1,148 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+
+import java.text.Normalizer;
+import java.util.List;
+
+/**
+ * Everything the scorer needs from a download option, collected in one pass over its files.
+ * Per audio file it keeps the normalized name (lower-case words, no diacritics or extension),
+ * the leading track number if the filename has one, and the length.
+ */
+record DownloadOptionProfile(
+        int audioFiles,
+        int losslessFiles,
+        int maxBitDepth,
+        int maxSampleRate,
+        int minLossyBitRate,
+        String[] names,
+        int[] numbers,
+        int[] lengths
+) {
+
+    static DownloadOptionProfile of(DownloadOption option) {
+        List<DownloadOption.FileItem> files = option.files();
+        String[] names = new String[files.size()];
+        int[] numbers = new int[files.size()];
+        int[] lengths = new int[files.size()];
+        int audio = 0;
+        int lossless = 0;
+        int maxBitDepth = 0;
+        int maxSampleRate = 0;
+        int minLossyBitRate = Integer.MAX_VALUE;
+
+        for (DownloadOption.FileItem file : files) {
+            String name = file.displayName();
+            if (name == null) {
+                continue;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot <= 0) {
+                continue;
+            }
+            AudioKind kind = AudioKind.of(name, dot + 1);
+            if (kind == AudioKind.NONE) {
+                continue;
+            }
+
+            if (kind == AudioKind.LOSSLESS) {
+                lossless++;
+            } else if (file.bitRate() != null && file.bitRate() > 0) {
+                minLossyBitRate = Math.min(minLossyBitRate, file.bitRate());
+            }
+            if (file.bitDepth() != null) {
+                maxBitDepth = Math.max(maxBitDepth, file.bitDepth());
+            }
+            if (file.sampleRate() != null) {
+                maxSampleRate = Math.max(maxSampleRate, file.sampleRate());
+            }
+
+            String normalized = normalize(name, dot);
+            numbers[audio] = leadingNumber(normalized);
+            names[audio] = numbers[audio] > 0 ? stripLeadingToken(normalized) : normalized;
+            lengths[audio] = file.lengthSeconds();
+            audio++;
+        }
+
+        return new DownloadOptionProfile(
+                audio,
+                lossless,
+                maxBitDepth,
+                maxSampleRate,
+                minLossyBitRate == Integer.MAX_VALUE ? 0 : minLossyBitRate,
+                names,
+                numbers,
+                lengths);
+    }
+
+    double losslessShare() {
+        return audioFiles == 0 ? 0 : (double) losslessFiles / audioFiles;
+    }
+
+    /**
+     * Lower-cases letters and digits and turns everything else into single spaces, up to {@code end}.
+     * Diacritics are only stripped (the slow path) when the name has non-ASCII characters.
+     */
+    static String normalize(String text, int end) {
+        StringBuilder sb = new StringBuilder(end);
+        boolean space = true;
+        boolean ascii = true;
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+                ascii &= c < 0x80;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        if (!sb.isEmpty() && sb.charAt(sb.length() - 1) == ' ') {
+            sb.setLength(sb.length() - 1);
+        }
+        if (ascii) {
+            return sb.toString();
+        }
+        return Normalizer.normalize(sb, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    /**
+     * "01 artist title" → 1, "101 title" (disc 1, track 1) → 1; 0 when there is no number.
+     */
+    private static int leadingNumber(String name) {
+        int value = 0;
+        int digits = 0;
+        while (digits < name.length() && Character.isDigit(name.charAt(digits))) {
+            value = value * 10 + (name.charAt(digits) - '0');
+            digits++;
+        }
+        if (digits == 0 || digits > 3 || (digits < name.length() && name.charAt(digits) != ' ')) {
+            return 0;
+        }
+        return digits == 3 ? value % 100 : value;
+    }
+
+    private static String stripLeadingToken(String name) {
+        int space = name.indexOf(' ');
+        return space < 0 ? "" : name.substring(space + 1);
+    }
+
+    enum AudioKind {
+        NONE, LOSSY, LOSSLESS;
+
+        static AudioKind of(String name, int extensionStart) {
+            int length = name.length() - extensionStart;
+            if (length < 3 || length > 4) {
+                return NONE;
+            }
+            String extension = name.substring(extensionStart).toLowerCase();
+            return switch (extension) {
+                case "flac", "wav", "aiff", "alac" -> LOSSLESS;
+                case "mp3", "m4a", "aac", "ogg" -> LOSSY;
+                default -> NONE;
+            };
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ranks download options locally: filenames are fuzzy-matched against the expected tracklist
+ * (character bigrams plus track numbers), lengths are checked against known durations, and
+ * format quality is weighed from bit depth, sample rate and bitrate.
+ * When the release has no tracklist it falls back to comparing the track count.
+ */
+@Component
+public class DownloadOptionScorer {
+
+    private static final double MATCH_THRESHOLD = 0.7;
+    private static final double NUMBER_BONUS = 0.25;
+    private static final int DURATION_TOLERANCE_SECONDS = 5;
+    private static final double DURATION_TOLERANCE_SHARE = 0.03;
+
+    /**
+     * Prepares the release side once so each option only pays for its own files.
+     */
+    public Expectation expect(ReleaseMetadata release) {
+        List<TrackMetadata> tracks = release.tracks() == null ? List.of() : release.tracks();
+        int[][] bigrams = new int[tracks.size()][];
+        int[] numbers = new int[tracks.size()];
+        int[] durations = new int[tracks.size()];
+        for (int i = 0; i < tracks.size(); i++) {
+            TrackMetadata track = tracks.get(i);
+            String title = track.title() == null ? "" : track.title();
+            bigrams[i] = bigrams(DownloadOptionProfile.normalize(title, title.length()));
+            numbers[i] = track.number();
+            durations[i] = track.durationSeconds() == null ? 0 : track.durationSeconds();
+        }
+        return new Expectation(release.minTracks(), bigrams, numbers, durations);
+    }
+
+    public Score score(DownloadOption option, Expectation expected) {
+        DownloadOptionProfile profile = DownloadOptionProfile.of(option);
+        if (profile.audioFiles() == 0) {
+            return new Score(0, DownloadFlowHandler.Suitability.BAD, 0, expected.trackCount(), 0, 0);
+        }
+
+        int quality = quality(profile);
+        if (expected.trackCount() == 0) {
+            return byTrackCount(profile, expected.minTracks(), quality);
+        }
+
+        boolean[] used = new boolean[profile.audioFiles()];
+        int[][] fileBigrams = new int[profile.audioFiles()][];
+        int matched = 0;
+        int durationMismatches = 0;
+
+        for (int t = 0; t < expected.trackCount(); t++) {
+            int best = -1;
+            double bestSimilarity = MATCH_THRESHOLD;
+            for (int f = 0; f < profile.audioFiles(); f++) {
+                if (used[f]) {
+                    continue;
+                }
+                if (fileBigrams[f] == null) {
+                    fileBigrams[f] = bigrams(profile.names()[f]);
+                }
+                double similarity = containment(expected.bigrams()[t], fileBigrams[f]);
+                if (profile.numbers()[f] > 0 && profile.numbers()[f] == expected.numbers()[t]) {
+                    similarity += NUMBER_BONUS;
+                }
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = f;
+                }
+            }
+            if (best < 0) {
+                continue;
+            }
+            used[best] = true;
+            matched++;
+            if (durationDiffers(expected.durations()[t], profile.lengths()[best])) {
+                durationMismatches++;
+            }
+        }
+
+        int missing = expected.trackCount() - matched;
+        int extra = profile.audioFiles() - matched;
+        double coverage = (double) matched / expected.trackCount();
+        int score = clamp(quality + (int) Math.round(coverage * 40) - extra * 2 - durationMismatches * 5 - missing * 5);
+
+        DownloadFlowHandler.Suitability suitability;
+        boolean lossless = profile.losslessShare() > 0.9;
+        if (lossless && missing == 0 && extra == 0 && durationMismatches == 0) {
+            suitability = DownloadFlowHandler.Suitability.PERFECT;
+        } else if (missing == 0 && durationMismatches <= 1 && (lossless || profile.minLossyBitRate() >= 320)) {
+            suitability = DownloadFlowHandler.Suitability.GOOD;
+        } else if (missing <= 2) {
+            suitability = DownloadFlowHandler.Suitability.WARNING;
+        } else {
+            suitability = DownloadFlowHandler.Suitability.BAD;
+        }
+        return new Score(score, suitability, matched, missing, extra, durationMismatches);
+    }
+
+    private Score byTrackCount(DownloadOptionProfile profile, int minTracks, int quality) {
+        boolean lossless = profile.losslessShare() > 0.9;
+        int diff = profile.audioFiles() - minTracks;
+        int score = clamp(quality + 40 - Math.abs(diff) * 5);
+
+        DownloadFlowHandler.Suitability suitability;
+        if (lossless && diff == 0) {
+            suitability = DownloadFlowHandler.Suitability.PERFECT;
+        } else if (lossless && diff > 0) {
+            suitability = DownloadFlowHandler.Suitability.GOOD;
+        } else if (Math.abs(diff) <= 2 || !lossless) {
+            suitability = DownloadFlowHandler.Suitability.WARNING;
+        } else {
+            suitability = DownloadFlowHandler.Suitability.BAD;
+        }
+        return new Score(score, suitability, Math.min(profile.audioFiles(), minTracks),
+                Math.max(0, -diff), Math.max(0, diff), 0);
+    }
+
+    /**
+     * Up to 60 points: lossless starts at 45 with hi-res extras, lossy is graded by its worst bitrate.
+     */
+    private static int quality(DownloadOptionProfile profile) {
+        if (profile.losslessShare() > 0.9) {
+            int points = 45;
+            if (profile.maxBitDepth() >= 24) points += 10;
+            if (profile.maxSampleRate() >= 88200) points += 5;
+            return points;
+        }
+        int bitRate = profile.minLossyBitRate();
+        if (bitRate >= 320) return 30;
+        if (bitRate >= 256) return 22;
+        if (bitRate >= 192) return 15;
+        return bitRate > 0 ? 5 : 15;
+    }
+
+    private static boolean durationDiffers(int expectedSeconds, int actualSeconds) {
+        if (expectedSeconds <= 0 || actualSeconds <= 0) {
+            return false;
+        }
+        double tolerance = Math.max(DURATION_TOLERANCE_SECONDS, expectedSeconds * DURATION_TOLERANCE_SHARE);
+        return Math.abs(expectedSeconds - actualSeconds) > tolerance;
+    }
+
+    /**
+     * Sorted, de-duplicated character bigrams packed into ints.
+     */
+    static int[] bigrams(String text) {
+        if (text.length() < 2) {
+            return text.isEmpty() ? new int[0] : new int[]{text.charAt(0)};
+        }
+        int[] grams = new int[text.length() - 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = text.charAt(i) << 16 | text.charAt(i + 1);
+        }
+        Arrays.sort(grams);
+        int unique = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Share of the title's bigrams found in the filename, so "01 artist - title" still matches "title".
+     */
+    static double containment(int[] title, int[] file) {
+        if (title.length == 0) {
+            return 0;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < title.length && j < file.length) {
+            if (title[i] == file[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (title[i] < file[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / title.length;
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+
+    public record Expectation(
+            int minTracks,
+            int[][] bigrams,
+            int[] numbers,
+            int[] durations
+    ) {
+        int trackCount() {
+            return bigrams.length;
+        }
+    }
+
+    public record Score(
+            int score,
+            DownloadFlowHandler.Suitability suitability,
+            int matchedTracks,
+            int missingTracks,
+            int extraTracks,
+            int durationMismatches
+    ) {
+    }
+}
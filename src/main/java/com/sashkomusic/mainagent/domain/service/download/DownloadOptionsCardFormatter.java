@@ -1,5 +1,6 @@
 package com.sashkomusic.mainagent.domain.service.download;
 
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
 import com.sashkomusic.mainagent.domain.model.DownloadOption;
 
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.stream.Collectors;
 
 public class DownloadOptionsCardFormatter {
 
+    private static final int MAX_MERGED_OPTIONS = 10;
+
     private static final Set<String> AUDIO_EXTENSIONS = Set.of(
             "flac", "mp3", "wav", "m4a", "aac", "alac", "aiff", "ogg", "wma", "ape"
     );
@@ -23,28 +26,7 @@ public class DownloadOptionsCardFormatter {
 
         int i = 1;
         for (var report : reports) {
-            var option = report.option();
-            var suitability = report.suitability();
-
-            if (option.files().isEmpty()) {
-                sb.append("%s **%s**\n"
-                        .formatted(getIndexIcon(i), "`%s`".formatted(option.displayName())));
-            } else {
-                String format = detectFormat(option);
-                int fileCount = option.files().size();
-
-                sb.append("%s **[%s]** • %d ф. • %d MB (%s)\n"
-                        .formatted(getIndexIcon(i), format, fileCount, option.totalSize(), suitability.icon));
-
-                option.files().stream()
-                        .limit(7)
-                        .forEach(f -> sb.append("   📄 `%s`\n".formatted(f.displayName())));
-
-                if (option.files().size() > 7) {
-                    sb.append("   ... _та ще %d файлів_\n".formatted(option.files().size() - 7));
-                }
-                sb.append("\n");
-            }
+            appendOption(sb, i, report, "", 7);
             i++;
         }
 
@@ -55,6 +37,70 @@ public class DownloadOptionsCardFormatter {
         return sb.toString();
     }
 
+    /**
+     * Options from all engines in one card, with a status line showing which engines have answered.
+     */
+    public static String formatMerged(MultiEngineDownloadSearch.Snapshot snapshot) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(snapshot.statuses().entrySet().stream()
+                .map(e -> formatEngineStatus(e.getKey(), e.getValue(), snapshot.counts().getOrDefault(e.getKey(), 0)))
+                .collect(Collectors.joining(" • ")));
+        sb.append("\n\n");
+
+        var reports = snapshot.ranked();
+        if (reports.isEmpty()) {
+            sb.append(snapshot.complete() ? "😔 **на жаль, нич.**\n" : "🔎 шукаю...\n");
+            return sb.toString();
+        }
+
+        sb.append("🔎 знайдено %s варіантів:\n\n".formatted(reports.size()));
+        for (int i = 0; i < Math.min(reports.size(), MAX_MERGED_OPTIONS); i++) {
+            var report = reports.get(i);
+            // Fewer file lines per option so ten options from several engines still fit one message
+            appendOption(sb, i + 1, report, report.option().source().getName() + " ", 3);
+        }
+        if (reports.size() > MAX_MERGED_OPTIONS) {
+            sb.append("... _та ще %d варіантів_\n\n".formatted(reports.size() - MAX_MERGED_OPTIONS));
+        }
+
+        if (!snapshot.aiSummary().isBlank()) {
+            sb.append("💡 _%s_\n".formatted(snapshot.aiSummary()));
+        }
+        return sb.toString();
+    }
+
+    private static String formatEngineStatus(DownloadEngine engine, MultiEngineDownloadSearch.EngineStatus status, int count) {
+        return status == MultiEngineDownloadSearch.EngineStatus.DONE
+                ? "%s %s %d".formatted(status.icon, engine.getName(), count)
+                : "%s %s".formatted(status.icon, engine.getName());
+    }
+
+    private static void appendOption(StringBuilder sb, int i, DownloadFlowHandler.OptionReport report, String sourceLabel,
+                                     int maxFiles) {
+        var option = report.option();
+        var suitability = report.suitability();
+
+        if (option.files().isEmpty()) {
+            sb.append("%s %s**%s**\n"
+                    .formatted(getIndexIcon(i), sourceLabel, "`%s`".formatted(option.displayName())));
+        } else {
+            String format = detectFormat(option);
+            int fileCount = option.files().size();
+
+            sb.append("%s %s**[%s]** • %d ф. • %d MB (%s)\n"
+                    .formatted(getIndexIcon(i), sourceLabel, format, fileCount, option.totalSize(), suitability.icon));
+
+            option.files().stream()
+                    .limit(maxFiles)
+                    .forEach(f -> sb.append("   📄 `%s`\n".formatted(f.displayName())));
+
+            if (option.files().size() > maxFiles) {
+                sb.append("   ... _та ще %d файлів_\n".formatted(option.files().size() - maxFiles));
+            }
+            sb.append("\n");
+        }
+    }
+
     private static String detectFormat(DownloadOption opt) {
         return opt.files().stream()
                 .map(f -> getExtension(f.filename()))
@@ -0,0 +1,198 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * One progress message per chat and release instead of a message per finished file.
+ * Completions and errors are folded into the same view, which is edited at most once per
+ * {@code download.progress.edit-interval}; updates held back by the throttle go out on the next flush.
+ */
+@Slf4j
+@Component
+public class DownloadProgressTracker {
+
+    private static final int MAX_ERRORS_SHOWN = 5;
+    private static final int BAR_WIDTH = 10;
+
+    private final Duration editInterval;
+    private final Duration abandonAfter;
+    private final Map<String, Progress> downloads = new ConcurrentHashMap<>();
+
+    public DownloadProgressTracker(@Value("${download.progress.edit-interval:PT3S}") Duration editInterval,
+                                   @Value("${download.progress.abandon-after:PT6H}") Duration abandonAfter) {
+        this.editInterval = editInterval;
+        this.abandonAfter = abandonAfter;
+    }
+
+    public void start(long chatId, String releaseId, DownloadOption option) {
+        downloads.put(key(chatId, releaseId), new Progress(chatId, releaseId, option.displayName(),
+                option.files().size(), option.totalSize()));
+    }
+
+    /**
+     * Resolves which download an event belongs to; events without a release id are attributed to the
+     * chat's only active download, if there is exactly one.
+     */
+    public Optional<String> resolveRelease(long chatId, String releaseId) {
+        if (releaseId != null) {
+            return downloads.containsKey(key(chatId, releaseId)) ? Optional.of(releaseId) : Optional.empty();
+        }
+        List<String> active = downloads.values().stream()
+                .filter(p -> p.chatId == chatId)
+                .map(p -> p.releaseId)
+                .toList();
+        return active.size() == 1 ? Optional.of(active.getFirst()) : Optional.empty();
+    }
+
+    public Optional<BotResponse> fileCompleted(long chatId, String releaseId, long sizeMB) {
+        return update(chatId, releaseId, progress -> {
+            progress.filesDone++;
+            progress.doneMB += sizeMB;
+        });
+    }
+
+    public Optional<BotResponse> fileFailed(long chatId, String releaseId, String error) {
+        return update(chatId, releaseId, progress -> progress.errors.add(error));
+    }
+
+    /**
+     * Share of the download's files that arrived so far, counting reported errors; empty if it isn't tracked
+     * or no file has been reported yet.
+     */
+    public OptionalDouble successRate(long chatId, String releaseId) {
+        Progress progress = downloads.get(key(chatId, releaseId));
+        if (progress == null) {
+            return OptionalDouble.empty();
+        }
+        synchronized (progress) {
+            int files = progress.filesDone + progress.errors.size();
+            return files == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) progress.filesDone / files);
+        }
+    }
+
+    /**
+     * Final state of the download, or empty if it wasn't tracked.
+     */
+    public Optional<BotResponse> finish(long chatId, String releaseId) {
+        Progress progress = downloads.remove(key(chatId, releaseId));
+        if (progress == null) {
+            return Optional.empty();
+        }
+        synchronized (progress) {
+            return Optional.of(render(progress, true));
+        }
+    }
+
+    /**
+     * Views whose last changes were held back by the throttle; also drops downloads that went silent.
+     */
+    public List<MusicDownloadFlowService.ChatResponse> flushPending() {
+        Instant now = Instant.now();
+        List<MusicDownloadFlowService.ChatResponse> responses = new ArrayList<>();
+        for (var entry : downloads.entrySet()) {
+            Progress progress = entry.getValue();
+            synchronized (progress) {
+                if (progress.lastChange.plus(abandonAfter).isBefore(now)) {
+                    log.info("Dropping download progress for releaseId={}: no events since {}",
+                            progress.releaseId, progress.lastChange);
+                    downloads.remove(entry.getKey(), progress);
+                } else if (progress.dirty && progress.lastEdit.plus(editInterval).isBefore(now)) {
+                    responses.add(new MusicDownloadFlowService.ChatResponse(progress.chatId, edited(progress, now)));
+                }
+            }
+        }
+        return responses;
+    }
+
+    private Optional<BotResponse> update(long chatId, String releaseId, Consumer<Progress> change) {
+        Progress progress = downloads.get(key(chatId, releaseId));
+        if (progress == null) {
+            return Optional.empty();
+        }
+        synchronized (progress) {
+            Instant now = Instant.now();
+            change.accept(progress);
+            progress.lastChange = now;
+            progress.dirty = true;
+            if (progress.lastEdit.plus(editInterval).isAfter(now)) {
+                return Optional.empty();
+            }
+            return Optional.of(edited(progress, now));
+        }
+    }
+
+    private BotResponse edited(Progress progress, Instant now) {
+        progress.lastEdit = now;
+        progress.dirty = false;
+        return render(progress, false);
+    }
+
+    private BotResponse render(Progress progress, boolean finished) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(finished ? "✅ *скачано:* " : "⬇️ *качаю:* ").append(plain(progress.name)).append('\n');
+
+        int total = Math.max(progress.totalFiles, progress.filesDone);
+        if (!finished && total > 0) {
+            int filled = BAR_WIDTH * progress.filesDone / total;
+            sb.append("▓".repeat(filled)).append("░".repeat(BAR_WIDTH - filled)).append('\n');
+        }
+        sb.append("📦 %d/%d файлів · %d/%d MB".formatted(
+                progress.filesDone, total, progress.doneMB, Math.max(progress.totalMB, progress.doneMB)));
+
+        if (!progress.errors.isEmpty()) {
+            sb.append("\n\n🤡 *не получилосі (%d):*".formatted(progress.errors.size()));
+            progress.errors.stream().limit(MAX_ERRORS_SHOWN).forEach(error -> sb.append("\n• ").append(plain(error)));
+            if (progress.errors.size() > MAX_ERRORS_SHOWN) {
+                sb.append("\n…");
+            }
+        }
+        return BotResponse.text(sb.toString()).editing("DL_PROGRESS:" + progress.releaseId);
+    }
+
+    /**
+     * Markdown control characters in file names would make every edit fail and fall back to a new message.
+     */
+    private static String plain(String text) {
+        return text == null ? "" : text.replaceAll("[*_`\\[\\]]", "");
+    }
+
+    private static String key(long chatId, String releaseId) {
+        return chatId + ":" + releaseId;
+    }
+
+    private static class Progress {
+        private final long chatId;
+        private final String releaseId;
+        private final String name;
+        private final int totalFiles;
+        private final long totalMB;
+        private final List<String> errors = new ArrayList<>();
+        private int filesDone;
+        private long doneMB;
+        private boolean dirty;
+        private Instant lastEdit = Instant.EPOCH;
+        private Instant lastChange = Instant.now();
+
+        private Progress(long chatId, String releaseId, String name, int totalFiles, long totalMB) {
+            this.chatId = chatId;
+            this.releaseId = releaseId;
+            this.name = name;
+            this.totalFiles = totalFiles;
+            this.totalMB = totalMB;
+        }
+    }
+}
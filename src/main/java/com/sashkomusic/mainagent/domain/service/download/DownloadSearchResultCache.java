@@ -0,0 +1,71 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Analysed download search results per release and engine, shared by all chats for a short TTL,
+ * so asking again for the same release doesn't repeat the downstream Qobuz/Soulseek search.
+ */
+@Slf4j
+@Component
+public class DownloadSearchResultCache {
+
+    private final Duration ttl;
+    private final Map<String, Entry> entries;
+
+    public DownloadSearchResultCache(@Value("${download.search-cache.ttl:PT15M}") Duration ttl,
+                                     @Value("${download.search-cache.max-entries:200}") int maxEntries) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<Entry> get(String releaseId, DownloadEngine engine) {
+        String key = key(releaseId, engine);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.cachedAt().plus(ttl).isBefore(Instant.now())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    public synchronized void put(String releaseId, DownloadEngine engine, DownloadFlowHandler.AnalysisResult result) {
+        if (result.reports().isEmpty()) {
+            return; // nothing found may be transient (peers offline, rate limits); search again next time
+        }
+        entries.put(key(releaseId, engine), new Entry(result, Instant.now()));
+    }
+
+    public synchronized void invalidate(String releaseId) {
+        entries.keySet().removeIf(key -> key.startsWith(releaseId + "|"));
+        log.info("Dropped cached download search results for releaseId={}", releaseId);
+    }
+
+    private static String key(String releaseId, DownloadEngine engine) {
+        return releaseId + "|" + engine;
+    }
+
+    public record Entry(DownloadFlowHandler.AnalysisResult result, Instant cachedAt) {
+
+        public long ageMinutes() {
+            return Duration.between(cachedAt, Instant.now()).toMinutes();
+        }
+    }
+}
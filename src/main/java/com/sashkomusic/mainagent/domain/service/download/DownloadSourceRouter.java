@@ -0,0 +1,209 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.service.search.SearchContextService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Learns which download engine usually has a release, to pick the one to search first.
+ * <p>
+ * Every search result and finished download is an outcome for its engine in each feature bucket of the
+ * release (origin, first tags, decade, plus a global bucket). Each bucket keeps a Beta(hits + 1, misses + 1)
+ * per engine; an engine's estimate pools its buckets. The default engine stays first until another one has
+ * enough evidence and a clearly better estimate. Counts are halved past a cap so the model keeps adapting,
+ * and the whole table is a small JSON file saved periodically.
+ */
+@Slf4j
+@Component
+public class DownloadSourceRouter {
+
+    private static final int MAX_TAGS = 3;
+    private static final double MAX_OBSERVATIONS = 200;
+
+    private final ObjectMapper objectMapper;
+    private final SearchContextService contextService;
+    private final Path statsFile;
+    private final boolean enabled;
+    private final DownloadEngine defaultEngine;
+    private final List<DownloadEngine> engines;
+    private final int minObservations;
+    private final double margin;
+
+    private Map<String, Map<DownloadEngine, Outcomes>> buckets = new HashMap<>();
+    private boolean dirty;
+
+    public DownloadSourceRouter(ObjectMapper objectMapper,
+                                SearchContextService contextService,
+                                @Value("${download.routing.path}") String statsFile,
+                                @Value("${download.routing.enabled:true}") boolean enabled,
+                                @Value("${download.routing.default-engine:QOBUZ}") DownloadEngine defaultEngine,
+                                @Value("${download.routing.engines:QOBUZ,BANDCAMP,SOULSEEK,APPLE_MUSIC}") List<DownloadEngine> engines,
+                                @Value("${download.routing.min-observations:5}") int minObservations,
+                                @Value("${download.routing.margin:0.1}") double margin) {
+        this.objectMapper = objectMapper;
+        this.contextService = contextService;
+        this.statsFile = Path.of(statsFile);
+        this.enabled = enabled;
+        this.defaultEngine = defaultEngine;
+        this.engines = List.copyOf(engines);
+        this.minObservations = minObservations;
+        this.margin = margin;
+    }
+
+    @PostConstruct
+    synchronized void load() {
+        if (!Files.exists(statsFile)) {
+            return;
+        }
+        try {
+            buckets = objectMapper.readValue(statsFile.toFile(), new TypeReference<>() {
+            });
+            log.info("Loaded download routing stats for {} buckets from {}", buckets.size(), statsFile);
+        } catch (IOException e) {
+            log.warn("Could not read download routing stats {}, starting fresh: {}", statsFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Engine to search first for this release.
+     */
+    public synchronized DownloadEngine firstEngine(ReleaseMetadata release) {
+        if (!enabled || release == null) {
+            return defaultEngine;
+        }
+        List<String> features = features(release);
+        DownloadEngine best = defaultEngine;
+        double defaultEstimate = estimate(features, defaultEngine).mean();
+        double bestEstimate = defaultEstimate;
+        for (DownloadEngine engine : engines) {
+            Outcomes pooled = estimate(features, engine);
+            if (engine != defaultEngine && pooled.observations() >= minObservations
+                    && pooled.mean() > defaultEstimate + margin && pooled.mean() > bestEstimate) {
+                best = engine;
+                bestEstimate = pooled.mean();
+            }
+        }
+        if (best != defaultEngine) {
+            log.info("Routing download search for {} - {} to {} ({} vs {} for {})", release.artist(), release.title(),
+                    best, "%.2f".formatted(bestEstimate), "%.2f".formatted(defaultEstimate), defaultEngine);
+        }
+        return best;
+    }
+
+    /**
+     * A search counts as a hit when its best option is at least {@link DownloadFlowHandler.Suitability#GOOD}.
+     */
+    public void recordSearch(String releaseId, DownloadEngine engine, DownloadFlowHandler.AnalysisResult result) {
+        boolean hit = !result.reports().isEmpty()
+                && result.reports().getFirst().suitability().compareTo(DownloadFlowHandler.Suitability.GOOD) <= 0;
+        record(contextService.getReleaseMetadata(releaseId), engine, hit ? 1 : 0, hit ? 0 : 1);
+    }
+
+    /**
+     * A finished download confirms the engine actually delivered; a partly failed one counts as a fractional hit.
+     */
+    public void recordDownload(String releaseId, DownloadEngine engine, double successRate) {
+        record(contextService.getReleaseMetadata(releaseId), engine, successRate, 1 - successRate);
+    }
+
+    private synchronized void record(ReleaseMetadata release, DownloadEngine engine, double hits, double misses) {
+        if (release == null || engine == null) {
+            return;
+        }
+        for (String feature : features(release)) {
+            Outcomes outcomes = buckets.computeIfAbsent(feature, f -> new HashMap<>())
+                    .computeIfAbsent(engine, e -> new Outcomes(0, 0));
+            outcomes = new Outcomes(outcomes.hits() + hits, outcomes.misses() + misses);
+            if (outcomes.observations() > MAX_OBSERVATIONS) {
+                outcomes = new Outcomes(outcomes.hits() / 2, outcomes.misses() / 2);
+            }
+            buckets.get(feature).put(engine, outcomes);
+        }
+        dirty = true;
+    }
+
+    private Outcomes estimate(List<String> features, DownloadEngine engine) {
+        double hits = 0;
+        double misses = 0;
+        for (String feature : features) {
+            Outcomes outcomes = buckets.getOrDefault(feature, Map.of()).get(engine);
+            if (outcomes != null) {
+                hits += outcomes.hits();
+                misses += outcomes.misses();
+            }
+        }
+        return new Outcomes(hits, misses);
+    }
+
+    static List<String> features(ReleaseMetadata release) {
+        List<String> features = new ArrayList<>();
+        features.add("all");
+        if (release.source() == SearchEngine.BANDCAMP) {
+            features.add("origin:bandcamp");
+        }
+        if (release.tags() != null) {
+            release.tags().stream()
+                    .limit(MAX_TAGS)
+                    .map(tag -> "tag:" + tag.toLowerCase(Locale.ROOT).trim())
+                    .forEach(features::add);
+        }
+        if (release.years() != null && !release.years().isEmpty()) {
+            try {
+                int year = Integer.parseInt(release.years().getFirst().substring(0, 4));
+                features.add("decade:" + (year / 10 * 10));
+            } catch (NumberFormatException | IndexOutOfBoundsException ignored) {
+            }
+        }
+        return features;
+    }
+
+    @Scheduled(fixedDelayString = "${download.routing.save-interval:PT5M}")
+    @PreDestroy
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            Files.createDirectories(statsFile.toAbsolutePath().getParent());
+            Path temp = statsFile.resolveSibling(statsFile.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), buckets);
+            Files.move(temp, statsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not save download routing stats to {}: {}", statsFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Hit and miss counts; fractional once halved. The Beta(1, 1) prior is added in {@link #mean()}.
+     */
+    public record Outcomes(double hits, double misses) {
+
+        double observations() {
+            return hits + misses;
+        }
+
+        double mean() {
+            return (hits + 1) / (hits + misses + 2);
+        }
+    }
+}
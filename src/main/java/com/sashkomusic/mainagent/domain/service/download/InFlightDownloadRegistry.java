@@ -0,0 +1,116 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Download tasks that have been sent but not finished, keyed by release and option, so double clicks,
+ * several chats or auto-download racing a manual pick produce a single task. Chats that ask for a release
+ * already being downloaded are told when it finishes or fails.
+ */
+@Slf4j
+@Component
+public class InFlightDownloadRegistry {
+
+    private final Duration staleAfter;
+    private final Map<String, InFlight> downloads = new HashMap<>();
+
+    public InFlightDownloadRegistry(@Value("${download.in-flight.stale-after:PT3H}") Duration staleAfter) {
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * Registers the request; only {@link Claim#STARTED} means a task should actually be sent.
+     */
+    public synchronized Claim claim(long chatId, String releaseId, DownloadOption option) {
+        String key = releaseId + "|" + option.id();
+        InFlight inFlight = downloads.get(key);
+        if (inFlight != null && inFlight.startedAt.plus(staleAfter).isBefore(Instant.now())) {
+            log.warn("Forgetting in-flight download of releaseId={} started at {} without completion", releaseId, inFlight.startedAt);
+            downloads.remove(key);
+            inFlight = null;
+        }
+        if (inFlight == null) {
+            downloads.put(key, new InFlight(chatId, releaseId, option.displayName(), option.source(), Instant.now()));
+            return Claim.STARTED;
+        }
+        if (inFlight.chatId == chatId) {
+            return Claim.ALREADY_DOWNLOADING;
+        }
+        boolean added = inFlight.waitingChats.add(chatId);
+        log.info("Download of releaseId={} already in progress for chatId={}, chatId={} will be notified",
+                releaseId, inFlight.chatId, chatId);
+        return added ? Claim.JOINED : Claim.ALREADY_DOWNLOADING;
+    }
+
+    /**
+     * Clears the release's downloads owned by the chat and returns the other chats waiting for them.
+     * Events without a release id clear the chat's download only if it has exactly one in flight.
+     */
+    public synchronized Optional<Finished> finish(long chatId, String releaseId) {
+        String release = releaseId != null ? releaseId : onlyReleaseOf(chatId);
+        if (release == null) {
+            return Optional.empty();
+        }
+        Set<Long> waiting = new LinkedHashSet<>();
+        String name = null;
+        DownloadEngine source = null;
+        var it = downloads.values().iterator();
+        while (it.hasNext()) {
+            InFlight inFlight = it.next();
+            if (inFlight.releaseId.equals(release) && inFlight.chatId == chatId) {
+                waiting.addAll(inFlight.waitingChats);
+                name = inFlight.name;
+                source = inFlight.source;
+                it.remove();
+            }
+        }
+        return name == null ? Optional.empty() : Optional.of(new Finished(release, name, source, waiting));
+    }
+
+    private String onlyReleaseOf(long chatId) {
+        var releases = downloads.values().stream()
+                .filter(inFlight -> inFlight.chatId == chatId)
+                .map(inFlight -> inFlight.releaseId)
+                .distinct()
+                .toList();
+        return releases.size() == 1 ? releases.getFirst() : null;
+    }
+
+    public enum Claim {
+        STARTED,
+        JOINED,
+        ALREADY_DOWNLOADING
+    }
+
+    public record Finished(String releaseId, String name, DownloadEngine source, Set<Long> waitingChats) {
+    }
+
+    private static class InFlight {
+        private final long chatId;
+        private final String releaseId;
+        private final String name;
+        private final DownloadEngine source;
+        private final Instant startedAt;
+        private final Set<Long> waitingChats = new LinkedHashSet<>();
+
+        private InFlight(long chatId, String releaseId, String name, DownloadEngine source, Instant startedAt) {
+            this.chatId = chatId;
+            this.releaseId = releaseId;
+            this.name = name;
+            this.source = source;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Download option searches sent to every engine at once. Results are merged per release as they arrive
+ * and ranked across engines: suitability first, then engine preference, then each handler's own order.
+ * A closed search is remembered for {@code download.search-cache.ttl}, so engines answering after the
+ * deadline or the user's pick are cached rather than shown as a separate single-engine card.
+ */
+@Slf4j
+@Component
+public class MultiEngineDownloadSearch {
+
+    private final boolean enabled;
+    private final List<DownloadEngine> engines;
+    private final Duration deadline;
+    private final boolean autoPick;
+    private final Duration closedTtl;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Instant> closed = new ConcurrentHashMap<>();
+
+    public MultiEngineDownloadSearch(@Value("${download.multi-engine.enabled:false}") boolean enabled,
+                                     @Value("${download.multi-engine.engines:QOBUZ,APPLE_MUSIC,BANDCAMP,SOULSEEK}") List<DownloadEngine> engines,
+                                     @Value("${download.multi-engine.deadline:PT90S}") Duration deadline,
+                                     @Value("${download.multi-engine.auto-pick:false}") boolean autoPick,
+                                     @Value("${download.search-cache.ttl:PT15M}") Duration closedTtl) {
+        this.enabled = enabled;
+        this.engines = List.copyOf(engines);
+        this.deadline = deadline;
+        this.autoPick = autoPick;
+        this.closedTtl = closedTtl;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAutoPick() {
+        return autoPick;
+    }
+
+    public List<DownloadEngine> engines() {
+        return engines;
+    }
+
+    /**
+     * Starts (or restarts) the search for a release; the returned id identifies its options card.
+     */
+    public String start(long chatId, String releaseId) {
+        Instant now = Instant.now();
+        String searchId = releaseId + ":" + Long.toString(now.toEpochMilli(), Character.MAX_RADIX);
+        closed.remove(key(chatId, releaseId));
+        sessions.put(key(chatId, releaseId), new Session(chatId, releaseId, searchId, now.plus(deadline)));
+        log.info("Multi-engine download search for releaseId={} started: {}", releaseId, engines);
+        return searchId;
+    }
+
+    /**
+     * True while a search for the release is running or was closed recently: its engines' results
+     * belong to the merged card and must not be shown on their own.
+     */
+    public boolean owns(long chatId, String releaseId) {
+        String key = key(chatId, releaseId);
+        if (sessions.containsKey(key)) {
+            return true;
+        }
+        Instant until = closed.get(key);
+        if (until != null && until.isBefore(Instant.now())) {
+            closed.remove(key, until);
+            return false;
+        }
+        return until != null;
+    }
+
+    public void finish(long chatId, String releaseId) {
+        if (sessions.remove(key(chatId, releaseId)) != null) {
+            close(key(chatId, releaseId));
+        }
+    }
+
+    /**
+     * The user asked for one engine explicitly; its results are shown on their own again.
+     */
+    public void forget(long chatId, String releaseId) {
+        sessions.remove(key(chatId, releaseId));
+        closed.remove(key(chatId, releaseId));
+    }
+
+    /**
+     * Adds one engine's results; the snapshot is complete once every engine has answered.
+     */
+    public Optional<Snapshot> merge(long chatId, String releaseId, DownloadEngine engine,
+                                    DownloadFlowHandler.AnalysisResult result) {
+        Session session = sessions.get(key(chatId, releaseId));
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            session.results.put(engine, result);
+            session.statuses.put(engine, EngineStatus.DONE);
+            boolean complete = session.statuses.values().stream().noneMatch(s -> s == EngineStatus.PENDING);
+            if (complete && sessions.remove(key(chatId, releaseId), session)) {
+                close(key(chatId, releaseId));
+            }
+            return Optional.of(session.snapshot(complete));
+        }
+    }
+
+    /**
+     * Closes sessions past their deadline; engines that haven't answered are marked as timed out.
+     */
+    public List<Snapshot> expireOverdue() {
+        Instant now = Instant.now();
+        List<Snapshot> expired = new ArrayList<>();
+        for (var entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (session.deadline.isAfter(now) || !sessions.remove(entry.getKey(), session)) {
+                continue;
+            }
+            close(entry.getKey());
+            synchronized (session) {
+                session.statuses.replaceAll((engine, status) -> status == EngineStatus.PENDING ? EngineStatus.TIMED_OUT : status);
+                log.info("Multi-engine download search for releaseId={} hit the deadline: {}", session.releaseId, session.statuses);
+                expired.add(session.snapshot(true));
+            }
+        }
+        return expired;
+    }
+
+    private void close(String key) {
+        Instant now = Instant.now();
+        closed.values().removeIf(until -> until.isBefore(now));
+        closed.put(key, now.plus(closedTtl));
+    }
+
+    private String key(long chatId, String releaseId) {
+        return chatId + ":" + releaseId;
+    }
+
+    public enum EngineStatus {
+        PENDING("⏳"),
+        DONE("✅"),
+        TIMED_OUT("⌛");
+
+        public final String icon;
+
+        EngineStatus(String icon) {
+            this.icon = icon;
+        }
+    }
+
+    public record Snapshot(
+            long chatId,
+            String releaseId,
+            String searchId,
+            List<DownloadFlowHandler.OptionReport> ranked,
+            Map<DownloadEngine, EngineStatus> statuses,
+            Map<DownloadEngine, Integer> counts,
+            String aiSummary,
+            boolean complete
+    ) {
+    }
+
+    private class Session {
+        private final long chatId;
+        private final String releaseId;
+        private final String searchId;
+        private final Instant deadline;
+        private final Map<DownloadEngine, EngineStatus> statuses = new LinkedHashMap<>();
+        private final Map<DownloadEngine, DownloadFlowHandler.AnalysisResult> results = new EnumMap<>(DownloadEngine.class);
+
+        private Session(long chatId, String releaseId, String searchId, Instant deadline) {
+            this.chatId = chatId;
+            this.releaseId = releaseId;
+            this.searchId = searchId;
+            this.deadline = deadline;
+            engines.forEach(engine -> statuses.put(engine, EngineStatus.PENDING));
+        }
+
+        private Snapshot snapshot(boolean complete) {
+            record Ranked(DownloadFlowHandler.OptionReport report, int engineRank, int position) {
+            }
+
+            List<Ranked> ranked = new ArrayList<>();
+            Map<DownloadEngine, Integer> counts = new EnumMap<>(DownloadEngine.class);
+            List<String> summaries = new ArrayList<>();
+            results.forEach((engine, result) -> {
+                int engineRank = engines.indexOf(engine) >= 0 ? engines.indexOf(engine) : engines.size();
+                for (int i = 0; i < result.reports().size(); i++) {
+                    ranked.add(new Ranked(result.reports().get(i), engineRank, i));
+                }
+                counts.put(engine, result.reports().size());
+                if (result.aiSummary() != null && !result.aiSummary().isBlank()) {
+                    summaries.add(result.aiSummary());
+                }
+            });
+
+            ranked.sort(Comparator.comparing((Ranked r) -> r.report().suitability())
+                    .thenComparingInt(Ranked::engineRank)
+                    .thenComparingInt(Ranked::position));
+
+            return new Snapshot(
+                    chatId,
+                    releaseId,
+                    searchId,
+                    ranked.stream().map(Ranked::report).toList(),
+                    new LinkedHashMap<>(statuses),
+                    counts,
+                    String.join(" ", summaries),
+                    complete);
+        }
+    }
+}
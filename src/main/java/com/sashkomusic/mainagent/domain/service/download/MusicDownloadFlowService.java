@@ -2,8 +2,10 @@ package com.sashkomusic.mainagent.domain.service.download;
 
 import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
 import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
 import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
 import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.service.process.LibraryIndex;
 import com.sashkomusic.mainagent.domain.service.search.ReleaseSearchFlowService;
 import com.sashkomusic.mainagent.domain.service.search.SearchContextService;
 import com.sashkomusic.mainagent.messaging.consumer.dto.SearchFilesResultDto;
@@ -18,8 +20,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -33,12 +37,33 @@ public class MusicDownloadFlowService {
     private final DownloadContextHolder downloadContextHolder;
     private final ReleaseSearchFlowService releaseSearchFlowService;
     private final Map<DownloadEngine, DownloadFlowHandler> downloadFlowHandlers;
+    private final MultiEngineDownloadSearch multiEngineSearch;
+    private final LibraryIndex libraryIndex;
+    private final DownloadProgressTracker downloadProgressTracker;
+    private final PartialSearchResults partialResults;
+    private final DownloadSearchResultCache searchResultCache;
+    private final InFlightDownloadRegistry inFlightDownloads;
+    private final SpeculativeDownloadSearch speculativeSearch;
+    private final DownloadSourceRouter sourceRouter;
+    private final SoulseekPeerStats peerStats;
 
     public List<BotResponse> handleDownload(long chatId, String data) {
         if (data.startsWith("DL:")) {
             String releaseId = data.substring(3);
             log.info("User selected release ID: {}", releaseId);
 
+            ReleaseMetadata metadata = contextService.getReleaseMetadata(releaseId);
+            if (metadata == null) {
+                return List.of(BotResponse.text("❌ шось ся не получило...найди реліз ше раз"));
+            }
+            speculativeSearch.clicked(releaseId);
+            return libraryCheck(metadata)
+                    .orElseGet(() -> initiateDefaultDownloadSearch(chatId, metadata));
+        }
+        if (data.startsWith("DL_FORCE:")) {
+            String releaseId = data.substring("DL_FORCE:".length());
+            log.info("User wants release ID {} again despite having it in the library", releaseId);
+
             ReleaseMetadata metadata = contextService.getReleaseMetadata(releaseId);
             if (metadata == null) {
                 return List.of(BotResponse.text("❌ шось ся не получило...найди реліз ше раз"));
@@ -49,14 +74,68 @@ public class MusicDownloadFlowService {
         return List.of(BotResponse.text("тєжко."));
     }
 
+    private Optional<List<BotResponse>> libraryCheck(ReleaseMetadata metadata) {
+        return libraryIndex.find(metadata).map(owned -> {
+            log.info("Release {} - {} is already in the library: {}", metadata.artist(), metadata.title(), owned.directory());
+            return List.of(BotResponse.withButtons(
+                    "📚 вже є в лібці: _%s - %s_".formatted(owned.artist(), owned.title()).toLowerCase(),
+                    Map.of("⬇️ все одно качати", "DL_FORCE:" + metadata.id())));
+        });
+    }
+
     private List<BotResponse> initiateDefaultDownloadSearch(long chatId, ReleaseMetadata metadata) {
-        return initiateDownloadSearch(chatId, metadata, DownloadEngine.QOBUZ);
+        if (multiEngineSearch.isEnabled()) {
+            return initiateMultiEngineSearch(chatId, metadata);
+        }
+        return initiateDownloadSearch(chatId, metadata, sourceRouter.firstEngine(metadata));
+    }
+
+    private List<BotResponse> initiateMultiEngineSearch(long chatId, ReleaseMetadata metadata) {
+        log.info("Initiating download search in all engines for: {} - {}", metadata.artist(), metadata.title());
+
+        String searchId = multiEngineSearch.start(chatId, metadata.id());
+        Optional<MultiEngineDownloadSearch.Snapshot> snapshot = Optional.empty();
+        for (DownloadEngine engine : multiEngineSearch.engines()) {
+            boolean speculating = speculativeSearch.claim(chatId, metadata.id(), engine);
+            var cached = searchResultCache.get(metadata.id(), engine);
+            if (cached.isPresent()) {
+                log.info("Using {} results for releaseId={} cached {} min ago", engine, metadata.id(), cached.get().ageMinutes());
+                snapshot = multiEngineSearch.merge(chatId, metadata.id(), engine, cached.get().result());
+            } else if (!speculating) {
+                partialResults.started(chatId, metadata.id(), engine);
+                searchFilesProducer.send(SearchFilesTaskDto.of(chatId, metadata.id(), metadata.artist(), metadata.title(), engine));
+            }
+        }
+        if (snapshot.isPresent()) {
+            return buildMergedOptionsResponse(snapshot.get());
+        }
+
+        return List.of(BotResponse.text(
+                "🔎 шукаю опції завантаження всюди: _%s - %s_".formatted(
+                        metadata.artist(),
+                        metadata.title()).toLowerCase()
+        ).editing(optionsCardKey(searchId)));
     }
 
     private List<BotResponse> initiateDownloadSearch(long chatId, ReleaseMetadata metadata, DownloadEngine source) {
+        multiEngineSearch.forget(chatId, metadata.id());
+        boolean speculating = speculativeSearch.claim(chatId, metadata.id(), source);
+        var cached = searchResultCache.get(metadata.id(), source);
+        if (cached.isPresent()) {
+            log.info("Using {} results for releaseId={} cached {} min ago", source, metadata.id(), cached.get().ageMinutes());
+            var responses = new ArrayList<>(presentResults(chatId, metadata.id(), source, cached.get().result(), null));
+            responses.add(BotResponse.withButtons(
+                    "⚡ опції з кешу (%d хв тому)".formatted(cached.get().ageMinutes()),
+                    Map.of("🔄 оновити", "DL_REFRESH:" + metadata.id() + ":" + source.name())));
+            return responses;
+        }
+
         log.info("Initiating download search for: {} - {}", metadata.artist(), metadata.title());
 
-        searchFilesProducer.send(SearchFilesTaskDto.of(chatId, metadata.id(), metadata.artist(), metadata.title(), source));
+        if (!speculating) {
+            partialResults.started(chatId, metadata.id(), source);
+            searchFilesProducer.send(SearchFilesTaskDto.of(chatId, metadata.id(), metadata.artist(), metadata.title(), source));
+        }
 
         return List.of(BotResponse.text(
                 "🔎 шукаю опції завантаження (%s): _%s - %s_".formatted(
@@ -67,23 +146,193 @@ public class MusicDownloadFlowService {
     }
 
     public List<BotResponse> handleSearchResults(SearchFilesResultDto dto) {
+        boolean speculative = speculativeSearch.isUnclaimed(dto.chatId(), dto.releaseId(), dto.source());
+        if (!dto.isPartial()) {
+            return speculative ? cacheSpeculativeResults(dto) : handleCompleteResults(dto, null);
+        }
+
+        var update = partialResults.accept(dto);
+        if (update.complete()) {
+            log.info("Streamed {} results for releaseId={} complete: kept {} of {} options",
+                    dto.source(), dto.releaseId(), update.ranked().size(), update.seen());
+            var complete = dto.withResults(update.options());
+            return speculative ? cacheSpeculativeResults(complete) : handleCompleteResults(complete, partialCardKey(dto));
+        }
+        // Merged, auto-download and speculative searches only show the final result
+        if (speculative || !update.changed() || dto.autoDownload() || multiEngineSearch.owns(dto.chatId(), dto.releaseId())) {
+            return List.of();
+        }
+        String text = "⏳ ще шукаю (%s), вже %d варіантів...\n\n".formatted(dto.source().getName().toLowerCase(), update.seen())
+                + DownloadOptionsCardFormatter.format(update.ranked(), "");
+        return List.of(BotResponse.text(text).editing(partialCardKey(dto)));
+    }
+
+    /**
+     * Results of a speculative search nobody has clicked for yet: analysed and cached, but not shown.
+     */
+    private List<BotResponse> cacheSpeculativeResults(SearchFilesResultDto dto) {
+        log.info("Caching speculative {} results for releaseId={}: {} options", dto.source(), dto.releaseId(), dto.results().size());
+        var analysisResult = downloadFlowHandlers.get(dto.source()).analyzeAll(dto.results(), dto.releaseId(), dto.chatId());
+        searchResultCache.put(dto.releaseId(), dto.source(), analysisResult);
+        sourceRouter.recordSearch(dto.releaseId(), dto.source(), analysisResult);
+        speculativeSearch.completed(dto.releaseId(), dto.source());
+        return List.of();
+    }
+
+    private List<BotResponse> handleCompleteResults(SearchFilesResultDto dto, String cardKey) {
         log.info("Processing search results for chatId={}, releaseId={}, source={}, results count={}",
                 dto.chatId(), dto.releaseId(), dto.source(), dto.results().size());
+        speculativeSearch.completed(dto.releaseId(), dto.source());
 
         var flowHandler = downloadFlowHandlers.get(dto.source());
 
         var analysisResult = flowHandler.analyzeAll(dto.results(), dto.releaseId(), dto.chatId());
         var reports = analysisResult.reports();
-        downloadContextHolder.saveDownloadOptions(dto.chatId(), dto.releaseId(), reports);
+        searchResultCache.put(dto.releaseId(), dto.source(), analysisResult);
+        sourceRouter.recordSearch(dto.releaseId(), dto.source(), analysisResult);
 
         reports.forEach(r -> log.info("{}", r));
 
         if (dto.autoDownload()) {
+            multiEngineSearch.finish(dto.chatId(), dto.releaseId());
+            downloadContextHolder.saveDownloadOptions(dto.chatId(), dto.releaseId(), reports);
             return autoDownload(dto, reports);
         }
 
+        return presentResults(dto.chatId(), dto.releaseId(), dto.source(), analysisResult, cardKey);
+    }
+
+    private List<BotResponse> presentResults(long chatId, String releaseId, DownloadEngine source,
+                                             DownloadFlowHandler.AnalysisResult analysisResult, String cardKey) {
+        var merged = multiEngineSearch.merge(chatId, releaseId, source, analysisResult);
+        if (merged.isPresent()) {
+            return buildMergedOptionsResponse(merged.get());
+        }
+        if (multiEngineSearch.owns(chatId, releaseId)) {
+            // Late engine of a closed multi-engine search: cached for the next search, the merged card stays as is
+            log.info("{} results for releaseId={} arrived after the multi-engine search closed, keeping them cached only",
+                    source, releaseId);
+            return List.of();
+        }
+
+        var reports = analysisResult.reports();
+        downloadContextHolder.saveDownloadOptions(chatId, releaseId, reports);
+
         String text = DownloadOptionsCardFormatter.format(reports, analysisResult.aiSummary());
-        return List.of(flowHandler.buildSearchResultsResponse(text, dto.releaseId(), dto.source()));
+        var response = downloadFlowHandlers.get(source).buildSearchResultsResponse(text, releaseId, source);
+        return List.of(cardKey != null ? response.editing(cardKey) : response);
+    }
+
+    /**
+     * Drops cached search results for the release and searches again, in one engine or the default way.
+     */
+    public List<BotResponse> handleRefresh(long chatId, String data) {
+        String releaseId = data.substring("DL_REFRESH:".length());
+        DownloadEngine engine = null;
+        int lastColon = releaseId.lastIndexOf(':');
+        if (lastColon > 0) {
+            // Release ids may contain colons themselves, so only strip a suffix that names an engine
+            try {
+                engine = DownloadEngine.valueOf(releaseId.substring(lastColon + 1));
+                releaseId = releaseId.substring(0, lastColon);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        log.info("User requested fresh download search for releaseId={}, engine={}", releaseId, engine);
+
+        ReleaseMetadata metadata = contextService.getReleaseMetadata(releaseId);
+        if (metadata == null) {
+            return List.of(BotResponse.text("❌ шось ся не получило...найди реліз ше раз"));
+        }
+        searchResultCache.invalidate(releaseId);
+        return engine != null
+                ? initiateDownloadSearch(chatId, metadata, engine)
+                : initiateDefaultDownloadSearch(chatId, metadata);
+    }
+
+    /**
+     * Multi-engine searches past their deadline, rendered as final cards; engines that didn't answer are marked.
+     */
+    public List<ChatResponse> expireMultiEngineSearches() {
+        return multiEngineSearch.expireOverdue().stream()
+                .flatMap(snapshot -> buildMergedOptionsResponse(snapshot).stream()
+                        .map(response -> new ChatResponse(snapshot.chatId(), response)))
+                .toList();
+    }
+
+    private List<BotResponse> buildMergedOptionsResponse(MultiEngineDownloadSearch.Snapshot snapshot) {
+        var reports = snapshot.ranked();
+        downloadContextHolder.saveDownloadOptions(snapshot.chatId(), snapshot.releaseId(), reports);
+
+        String text = DownloadOptionsCardFormatter.formatMerged(snapshot);
+        String cardKey = optionsCardKey(snapshot.searchId());
+
+        boolean pickBest = snapshot.complete() && multiEngineSearch.isAutoPick() && !reports.isEmpty()
+                && reports.getFirst().suitability().compareTo(DownloadFlowHandler.Suitability.GOOD) <= 0;
+        if (pickBest) {
+            var option = reports.getFirst().option();
+            log.info("Auto-picking best option across engines from {}: {}", option.source(), option.displayName());
+            var duplicate = startDownload(snapshot.chatId(), snapshot.releaseId(), option);
+            return List.of(
+                    BotResponse.text(text).editing(cardKey),
+                    duplicate.orElseGet(() -> downloadFlowHandlers.get(option.source())
+                            .buildAutoDownloadResponse(option, snapshot.releaseId())));
+        }
+
+        var buttons = new LinkedHashMap<String, String>();
+        if (!reports.isEmpty()) {
+            buttons.put("🏆 бери найкраще", "DL_BEST:" + snapshot.releaseId());
+        }
+        if (snapshot.complete()) {
+            buttons.put("🔄 оновити", "DL_REFRESH:" + snapshot.releaseId());
+        }
+        return List.of(BotResponse.withButtons(text, buttons).editing(cardKey));
+    }
+
+    public List<BotResponse> handleBestOption(long chatId, String data) {
+        String releaseId = data.substring("DL_BEST:".length());
+        var reports = downloadContextHolder.getDownloadOptions(chatId);
+        if (reports.isEmpty() || !releaseId.equals(downloadContextHolder.getChosenRelease(chatId))) {
+            return List.of(BotResponse.text("😔 **варіанти пропали, нич нема, давай ше раз.**"));
+        }
+
+        // Options are already ranked across engines, the first one is the best
+        var option = reports.getFirst().option();
+        log.info("User picked best option for releaseId={}: {} from {}", releaseId, option.displayName(), option.source());
+        multiEngineSearch.finish(chatId, releaseId);
+        var duplicate = startDownload(chatId, releaseId, option);
+        if (duplicate.isPresent()) {
+            return List.of(duplicate.get());
+        }
+
+        return List.of(BotResponse.text(downloadFlowHandlers.get(option.source()).formatDownloadConfirmation(option)));
+    }
+
+    /**
+     * Sends the download task unless the same option of the release is already being downloaded;
+     * in that case returns what to tell the user instead.
+     */
+    private Optional<BotResponse> startDownload(long chatId, String releaseId, DownloadOption option) {
+        return switch (inFlightDownloads.claim(chatId, releaseId, option)) {
+            case STARTED -> {
+                downloadTaskProducer.send(DownloadFilesTaskDto.of(chatId, releaseId, option));
+                downloadProgressTracker.start(chatId, releaseId, option);
+                peerStats.started(chatId, releaseId, option);
+                yield Optional.empty();
+            }
+            case JOINED -> Optional.of(BotResponse.text(
+                    "⏳ *це вже хтось качає:* %s\nнапишу, як буде готово".formatted(option.displayName())));
+            case ALREADY_DOWNLOADING -> Optional.of(BotResponse.text(
+                    "⏳ *вже качаю:* %s".formatted(option.displayName())));
+        };
+    }
+
+    private static String partialCardKey(SearchFilesResultDto dto) {
+        return "DL_PARTIAL:" + dto.releaseId() + ":" + dto.source();
+    }
+
+    private static String optionsCardKey(String searchId) {
+        return "DL_OPTIONS:" + searchId;
     }
 
     private List<BotResponse> autoDownload(SearchFilesResultDto dto, List<DownloadFlowHandler.OptionReport> reports) {
@@ -91,7 +340,10 @@ public class MusicDownloadFlowService {
         var option = chosenReport.option();
 
         log.info("Auto-downloading from {}: {}", option.source(), option.displayName());
-        downloadTaskProducer.send(DownloadFilesTaskDto.of(dto.chatId(), dto.releaseId(), option));
+        var duplicate = startDownload(dto.chatId(), dto.releaseId(), option);
+        if (duplicate.isPresent()) {
+            return List.of(duplicate.get());
+        }
 
         var flowHandler = downloadFlowHandlers.get(option.source());
         return List.of(flowHandler.buildAutoDownloadResponse(option, dto.releaseId()));
@@ -114,7 +366,10 @@ public class MusicDownloadFlowService {
 
         log.info("User chose option #{}: {} from {}", optionNumber, option.id(), option.displayName());
 
-        downloadTaskProducer.send(DownloadFilesTaskDto.of(chatId, releaseId, option));
+        var duplicate = startDownload(chatId, releaseId, option);
+        if (duplicate.isPresent()) {
+            return List.of(duplicate.get());
+        }
 
         var flowHandler = downloadFlowHandlers.get(option.source());
         String message = flowHandler.formatDownloadConfirmation(option);
@@ -148,7 +403,8 @@ public class MusicDownloadFlowService {
 
         List<BotResponse> responses = new ArrayList<>();
         responses.add(releaseSearchFlowService.buildReleaseDownloadCard(selectedRelease, searchResult.engine()));
-        responses.addAll(initiateDefaultDownloadSearch(chatId, selectedRelease));
+        responses.addAll(libraryCheck(selectedRelease)
+                .orElseGet(() -> initiateDefaultDownloadSearch(chatId, selectedRelease)));
 
         return responses;
     }
@@ -182,4 +438,7 @@ public class MusicDownloadFlowService {
         var source = DownloadEngine.valueOf(sourceName);
         return initiateDownloadSearch(chatId, metadata, source);
     }
+
+    public record ChatResponse(long chatId, BotResponse response) {
+    }
 }
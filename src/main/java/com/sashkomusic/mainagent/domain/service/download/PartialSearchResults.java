@@ -0,0 +1,213 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import com.sashkomusic.mainagent.domain.service.search.SearchContextService;
+import com.sashkomusic.mainagent.messaging.consumer.dto.SearchFilesResultDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merges streamed, sequence-numbered file search results into a bounded top-K per chat, release and engine.
+ * Each batch is scored locally as it arrives and only the best {@code top-k} options are kept, so memory
+ * stays flat however many peers answer. The final marker hands the survivors to the normal analysis.
+ * Searches whose downloader goes quiet are dropped after {@code idle-timeout}, and partials redelivered
+ * after the final marker are ignored for as long, unless a new search is {@link #started}.
+ */
+@Slf4j
+@Component
+public class PartialSearchResults {
+
+    private static final Comparator<Ranked> WORST_FIRST = Comparator
+            .comparing((Ranked r) -> r.score().suitability(), Comparator.reverseOrder())
+            .thenComparingInt(r -> r.score().score());
+
+    private final DownloadOptionScorer scorer;
+    private final SearchContextService contextService;
+    private final int topK;
+    private final Duration updateInterval;
+    private final Duration idleTimeout;
+    private final Map<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final Map<String, Instant> completed = new ConcurrentHashMap<>();
+
+    public PartialSearchResults(DownloadOptionScorer scorer,
+                                SearchContextService contextService,
+                                @Value("${download.partial-results.top-k:20}") int topK,
+                                @Value("${download.partial-results.update-interval:PT2S}") Duration updateInterval,
+                                @Value("${download.partial-results.idle-timeout:PT10M}") Duration idleTimeout) {
+        this.scorer = scorer;
+        this.contextService = contextService;
+        this.topK = topK;
+        this.updateInterval = updateInterval;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * A new search task was sent, so its partials are accepted even if an earlier search just completed.
+     */
+    public void started(long chatId, String releaseId, DownloadEngine source) {
+        completed.remove(key(chatId, releaseId, source));
+    }
+
+    /**
+     * Merges one partial message. On the final marker the accumulator is closed and {@code complete} is set.
+     */
+    public Update accept(SearchFilesResultDto dto) {
+        Instant now = Instant.now();
+        dropIdle(now);
+
+        String key = key(dto.chatId(), dto.releaseId(), dto.source());
+        if (completed.containsKey(key)) {
+            log.debug("Ignoring {} results for releaseId={} after the final marker", dto.source(), dto.releaseId());
+            return new Update(List.of(), 0, false, false);
+        }
+        Accumulator accumulator = accumulators.get(key);
+        if (accumulator == null) {
+            // The tracklist may be a remote call; fetch it outside the map so other searches aren't blocked
+            var created = new Accumulator(scorer.expect(contextService.getMetadataWithTracks(dto.releaseId(), dto.chatId())));
+            var raced = accumulators.putIfAbsent(key, created);
+            accumulator = raced != null ? raced : created;
+        }
+
+        synchronized (accumulator) {
+            accumulator.lastMessage = now;
+            boolean changed = accumulator.merge(dto);
+            if (dto.isFinal()) {
+                accumulators.remove(key, accumulator);
+                completed.put(key, now);
+                if (accumulator.missingBefore(dto.sequence())) {
+                    log.warn("Final {} results for releaseId={} arrived with gaps in the sequence",
+                            dto.source(), dto.releaseId());
+                }
+                return new Update(accumulator.ranked(), accumulator.seen, changed, true);
+            }
+
+            boolean bestChanged = accumulator.takeBestChanged();
+            boolean due = changed && accumulator.lastUpdate.plus(updateInterval).isBefore(now);
+            if (bestChanged || due) {
+                accumulator.lastUpdate = now;
+                return new Update(accumulator.ranked(), accumulator.seen, true, false);
+            }
+            return new Update(List.of(), accumulator.seen, false, false);
+        }
+    }
+
+    public boolean isTracking(SearchFilesResultDto dto) {
+        return accumulators.containsKey(key(dto.chatId(), dto.releaseId(), dto.source()));
+    }
+
+    private void dropIdle(Instant now) {
+        Instant idleSince = now.minus(idleTimeout);
+        accumulators.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastMessage.isAfter(idleSince)) {
+                return false;
+            }
+            log.info("Dropping streamed results for {}: no messages since {}", entry.getKey(), entry.getValue().lastMessage);
+            return true;
+        });
+        completed.values().removeIf(completedAt -> completedAt.isBefore(idleSince));
+    }
+
+    private static String key(long chatId, String releaseId, DownloadEngine source) {
+        return chatId + ":" + releaseId + ":" + source;
+    }
+
+    /**
+     * @param ranked best options so far, best first; empty when there is nothing new to show
+     * @param seen   options received in total, including those that didn't make the top-K
+     */
+    public record Update(List<DownloadFlowHandler.OptionReport> ranked, int seen, boolean changed, boolean complete) {
+
+        public List<DownloadOption> options() {
+            return ranked.stream().map(DownloadFlowHandler.OptionReport::option).toList();
+        }
+    }
+
+    private record Ranked(DownloadOption option, DownloadOptionScorer.Score score) {
+    }
+
+    private class Accumulator {
+        private final DownloadOptionScorer.Expectation expectation;
+        private final PriorityQueue<Ranked> top = new PriorityQueue<>(WORST_FIRST);
+        private final Set<String> keptIds = new HashSet<>();
+        private final BitSet sequences = new BitSet();
+        private String bestId;
+        private boolean bestChanged;
+        private int seen;
+        private Instant lastUpdate = Instant.EPOCH;
+        private volatile Instant lastMessage = Instant.now();
+
+        private Accumulator(DownloadOptionScorer.Expectation expectation) {
+            this.expectation = expectation;
+        }
+
+        private boolean merge(SearchFilesResultDto dto) {
+            if (dto.sequence() != null) {
+                if (sequences.get(dto.sequence())) {
+                    return false; // redelivered
+                }
+                sequences.set(dto.sequence());
+            }
+
+            boolean changed = false;
+            for (DownloadOption option : dto.results()) {
+                seen++;
+                if (option.id() != null && keptIds.contains(option.id())) {
+                    continue;
+                }
+                Ranked ranked = new Ranked(option, scorer.score(option, expectation));
+                if (top.size() < topK) {
+                    add(ranked);
+                    changed = true;
+                } else if (WORST_FIRST.compare(ranked, top.peek()) > 0) {
+                    keptIds.remove(top.poll().option().id());
+                    add(ranked);
+                    changed = true;
+                }
+            }
+
+            String best = top.stream().max(WORST_FIRST).map(r -> r.option().id()).orElse(null);
+            if (best != null && !best.equals(bestId)) {
+                bestId = best;
+                bestChanged = true;
+            }
+            return changed;
+        }
+
+        private void add(Ranked ranked) {
+            top.add(ranked);
+            if (ranked.option().id() != null) {
+                keptIds.add(ranked.option().id());
+            }
+        }
+
+        private boolean takeBestChanged() {
+            boolean result = bestChanged;
+            bestChanged = false;
+            return result;
+        }
+
+        private boolean missingBefore(Integer lastSequence) {
+            return lastSequence != null && sequences.nextClearBit(0) < lastSequence;
+        }
+
+        private List<DownloadFlowHandler.OptionReport> ranked() {
+            return top.stream()
+                    .sorted(WORST_FIRST.reversed())
+                    .map(r -> new DownloadFlowHandler.OptionReport(r.option(), r.score().suitability()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import java.util.Arrays;
+
+/**
+ * Per-peer download statistics in an open-addressing table keyed by a 64-bit peer hash, with the
+ * metrics in parallel primitive arrays (no boxing, no entry objects). Every metric is an EWMA that
+ * decays back towards its prior with the configured half-life, so a peer's bad week is forgotten.
+ * Not thread-safe; callers synchronize.
+ */
+final class PeerStatsTable {
+
+    private static final long EMPTY = 0L;
+    private static final double ALPHA = 0.3;
+    private static final double MAX_LOAD = 0.6;
+
+    private final double halfLifeMillis;
+    private final int maxPeers;
+    private final Estimate prior;
+
+    private long[] keys;
+    private double[] successRate;
+    private double[] ttfbSeconds;
+    private double[] throughputKBps;
+    private long[] updatedAt;
+    private int[] samples;
+    private int size;
+
+    PeerStatsTable(long halfLifeMillis, int maxPeers, Estimate prior) {
+        this.halfLifeMillis = halfLifeMillis;
+        this.maxPeers = maxPeers;
+        this.prior = prior;
+        allocate(16);
+    }
+
+    void observe(long peer, long nowMillis, boolean success, double ttfb, double throughput) {
+        observe(peer, nowMillis, success ? 1 : 0, ttfb, throughput);
+    }
+
+    /**
+     * Folds in one finished download; {@code success} is the share of its files that arrived.
+     * {@code NaN} timings are skipped (a failed peer has no throughput).
+     */
+    void observe(long peer, long nowMillis, double success, double ttfb, double throughput) {
+        int slot = find(peer);
+        if (slot < 0) {
+            if (size >= maxPeers) {
+                evictStale();
+            }
+            if ((size + 1) > keys.length * MAX_LOAD) {
+                rehash(keys.length * 2);
+            }
+            slot = insert(peer);
+            successRate[slot] = prior.successRate();
+            ttfbSeconds[slot] = prior.ttfbSeconds();
+            throughputKBps[slot] = prior.throughputKBps();
+            updatedAt[slot] = nowMillis;
+        }
+
+        double weight = decay(nowMillis - updatedAt[slot]);
+        successRate[slot] = ewma(decayed(successRate[slot], prior.successRate(), weight), success);
+        ttfbSeconds[slot] = ewma(decayed(ttfbSeconds[slot], prior.ttfbSeconds(), weight), ttfb);
+        throughputKBps[slot] = ewma(decayed(throughputKBps[slot], prior.throughputKBps(), weight), throughput);
+        updatedAt[slot] = nowMillis;
+        samples[slot]++;
+    }
+
+    /**
+     * The peer's decayed statistics, or the prior for a peer never seen.
+     */
+    Estimate estimate(long peer, long nowMillis) {
+        int slot = find(peer);
+        if (slot < 0) {
+            return prior;
+        }
+        double weight = decay(nowMillis - updatedAt[slot]);
+        return new Estimate(
+                decayed(successRate[slot], prior.successRate(), weight),
+                decayed(ttfbSeconds[slot], prior.ttfbSeconds(), weight),
+                decayed(throughputKBps[slot], prior.throughputKBps(), weight),
+                samples[slot]);
+    }
+
+    Estimate prior() {
+        return prior;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private double decay(long ageMillis) {
+        return Math.pow(0.5, Math.max(0, ageMillis) / halfLifeMillis);
+    }
+
+    private static double decayed(double value, double prior, double weight) {
+        return prior + (value - prior) * weight;
+    }
+
+    private static double ewma(double current, double observed) {
+        return Double.isNaN(observed) ? current : current + ALPHA * (observed - current);
+    }
+
+    private int find(long peer) {
+        int mask = keys.length - 1;
+        for (int slot = index(peer, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == peer) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private int insert(long peer) {
+        int mask = keys.length - 1;
+        int slot = index(peer, mask);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = peer;
+        samples[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    private static int index(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    /**
+     * Drops the least recently updated half of the peers when the table is full.
+     */
+    private void evictStale() {
+        long[] ages = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                ages[n++] = updatedAt[slot];
+            }
+        }
+        Arrays.sort(ages);
+        long cutoff = ages[size / 2];
+        rehash(keys.length, cutoff);
+    }
+
+    private void rehash(int capacity) {
+        rehash(capacity, Long.MIN_VALUE);
+    }
+
+    private void rehash(int capacity, long keepUpdatedFrom) {
+        long[] oldKeys = keys;
+        double[] oldSuccess = successRate;
+        double[] oldTtfb = ttfbSeconds;
+        double[] oldThroughput = throughputKBps;
+        long[] oldUpdated = updatedAt;
+        int[] oldSamples = samples;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY || oldUpdated[i] < keepUpdatedFrom) {
+                continue;
+            }
+            int slot = insert(oldKeys[i]);
+            successRate[slot] = oldSuccess[i];
+            ttfbSeconds[slot] = oldTtfb[i];
+            throughputKBps[slot] = oldThroughput[i];
+            updatedAt[slot] = oldUpdated[i];
+            samples[slot] = oldSamples[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        successRate = new double[capacity];
+        ttfbSeconds = new double[capacity];
+        throughputKBps = new double[capacity];
+        updatedAt = new long[capacity];
+        samples = new int[capacity];
+        size = 0;
+    }
+
+    record Estimate(double successRate, double ttfbSeconds, double throughputKBps, int samples) {
+    }
+}
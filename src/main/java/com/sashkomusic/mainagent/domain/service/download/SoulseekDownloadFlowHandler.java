@@ -4,9 +4,9 @@ import com.sashkomusic.mainagent.ai.service.AiService;
 import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
 import com.sashkomusic.mainagent.domain.model.DownloadEngine;
 import com.sashkomusic.mainagent.domain.model.DownloadOption;
-import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
 import com.sashkomusic.mainagent.domain.service.search.SearchContextService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Component;
 
@@ -15,12 +15,15 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class SoulseekDownloadFlowHandler implements DownloadFlowHandler {
 
     private final AiService aiService;
     private final SearchContextService contextService;
+    private final DownloadOptionScorer scorer;
+    private final SoulseekPeerStats peerStats;
 
     @Override
     public AnalysisResult analyzeAll(List<DownloadOption> options, String releaseId, long chatId) {
@@ -29,11 +32,28 @@ public class SoulseekDownloadFlowHandler implements DownloadFlowHandler {
         }
 
         final var enrichedMetadata = contextService.getMetadataWithTracks(releaseId, chatId);
-        var reports = options.stream()
-                .map(opt -> new OptionReport(opt, resolveSuitabilityLevel(opt, enrichedMetadata)))
-                .sorted(Comparator.comparing(OptionReport::suitability))
+        var expectation = scorer.expect(enrichedMetadata);
+        // Within a suitability, a slow or flaky peer costs score points for its expected download time
+        record Scored(DownloadOption option, DownloadOptionScorer.Score score, int rank) {
+        }
+        var scored = options.stream()
+                .map(opt -> {
+                    var score = scorer.score(opt, expectation);
+                    return new Scored(opt, score, score.score() - peerStats.penalty(opt));
+                })
+                .sorted(Comparator.comparing((Scored s) -> s.score().suitability())
+                        .thenComparing(Comparator.comparingInt(Scored::rank).reversed()))
+                .toList();
+        var reports = scored.stream()
+                .map(s -> new OptionReport(s.option(), s.score().suitability()))
                 .toList();
 
+        if (reports.getFirst().suitability() == Suitability.PERFECT) {
+            log.info("Best option for releaseId={} scored {} (rank {}), skipping AI analysis",
+                    releaseId, scored.getFirst().score(), scored.getFirst().rank());
+            return new AnalysisResult(reports, "");
+        }
+
         var sortedOptions = reports.stream()
                 .map(OptionReport::option)
                 .toList();
@@ -88,50 +108,4 @@ public class SoulseekDownloadFlowHandler implements DownloadFlowHandler {
                 .map(DownloadOption.FileItem::displayName)
                 .collect(Collectors.joining("\n"));
     }
-
-    private Suitability resolveSuitabilityLevel(DownloadOption option, ReleaseMetadata expected) {
-        boolean isLossless = isLossless(option);
-        long diff = calculateTrackCountDiff(option, expected);
-
-        if (isLossless && diff == 0) {
-            return Suitability.PERFECT;
-        } else if (isLossless && diff > 0) {
-            return Suitability.GOOD;
-        } else if (Math.abs(diff) <= 2 || !isLossless) {
-            return Suitability.WARNING;
-        } else {
-            return Suitability.BAD;
-        }
-    }
-
-    private boolean isLossless(DownloadOption option) {
-        long audioCount = option.files().stream().filter(f -> isAudio(f.filename())).count();
-        if (audioCount == 0) return false;
-
-        long losslessCount = option.files().stream()
-                .filter(f -> isHighQualityFile(f.filename()))
-                .count();
-
-        return (double) losslessCount / audioCount > 0.9;
-    }
-
-    private long calculateTrackCountDiff(DownloadOption option, ReleaseMetadata expected) {
-        long audioFilesCount = option.files().stream()
-                .filter(f -> isAudio(f.filename()))
-                .count();
-        return audioFilesCount - expected.minTracks();
-    }
-
-    private boolean isHighQualityFile(String name) {
-        String lower = name.toLowerCase();
-        return lower.endsWith(".flac") || lower.endsWith(".wav") || lower.endsWith(".aiff") || lower.endsWith(".alac");
-    }
-
-    private boolean isAudio(String name) {
-        String lower = name.toLowerCase();
-        return lower.endsWith(".mp3") || lower.endsWith(".flac") ||
-                lower.endsWith(".wav") || lower.endsWith(".m4a") ||
-                lower.endsWith(".aac") || lower.endsWith(".ogg") ||
-                lower.endsWith(".alac") || lower.endsWith(".aiff");
-    }
 }
@@ -0,0 +1,172 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How Soulseek peers actually performed: success rate, time until the first file arrived and throughput
+ * after that, learned from our own downloads and used to estimate how long an option would take.
+ * <p>
+ * The downloader only reports finished files, so "time to first byte" is the time to the first completed
+ * file (queue wait plus that file) and throughput is measured over the files after it.
+ */
+@Slf4j
+@Component
+public class SoulseekPeerStats {
+
+    private static final String PEER_KEY = "username";
+    private static final double MIN_SUCCESS_RATE = 0.05;
+    private static final int MAX_PENALTY = 30;
+    private static final int MAX_BONUS = 10;
+
+    private final PeerStatsTable table;
+    private final Duration abandonAfter;
+    private final Map<String, Active> active = new ConcurrentHashMap<>();
+
+    public SoulseekPeerStats(@Value("${download.soulseek.peers.half-life:P14D}") Duration halfLife,
+                             @Value("${download.soulseek.peers.max-peers:4096}") int maxPeers,
+                             @Value("${download.soulseek.peers.prior-throughput-kbps:1024}") double priorThroughputKBps,
+                             @Value("${download.progress.abandon-after:PT6H}") Duration abandonAfter) {
+        this.table = new PeerStatsTable(halfLife.toMillis(), maxPeers,
+                new PeerStatsTable.Estimate(0.8, 60, priorThroughputKBps, 0));
+        this.abandonAfter = abandonAfter;
+    }
+
+    public void started(long chatId, String releaseId, DownloadOption option) {
+        if (option.source() != DownloadEngine.SOULSEEK) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        active.values().removeIf(a -> now - a.startedAt > abandonAfter.toMillis());
+        active.put(key(chatId, releaseId), new Active(peerKey(peer(option)), now));
+    }
+
+    public void fileCompleted(long chatId, String releaseId, long sizeMB) {
+        Active download = active.get(key(chatId, releaseId));
+        if (download == null) {
+            return;
+        }
+        synchronized (download) {
+            long now = System.currentTimeMillis();
+            download.filesDone++;
+            if (download.firstFileAt == 0) {
+                download.firstFileAt = now;
+            } else {
+                download.laterMB += sizeMB;
+            }
+            download.lastFileAt = now;
+        }
+    }
+
+    public void fileFailed(long chatId, String releaseId) {
+        Active download = active.get(key(chatId, releaseId));
+        if (download != null) {
+            synchronized (download) {
+                download.filesFailed++;
+            }
+        }
+    }
+
+    /**
+     * Scores the peer by the share of files that arrived, so a peer that failed most of a release counts
+     * as mostly failed even though the batch completed.
+     */
+    public void finished(long chatId, String releaseId) {
+        Active download = active.remove(key(chatId, releaseId));
+        if (download == null) {
+            return;
+        }
+        double success;
+        double ttfb;
+        double throughput;
+        synchronized (download) {
+            int files = download.filesDone + download.filesFailed;
+            success = files == 0 ? 0 : (double) download.filesDone / files;
+            ttfb = download.firstFileAt == 0 ? Double.NaN : (download.firstFileAt - download.startedAt) / 1000.0;
+            long transferMillis = download.lastFileAt - download.firstFileAt;
+            throughput = download.laterMB > 0 && transferMillis > 0
+                    ? download.laterMB * 1024.0 / (transferMillis / 1000.0)
+                    : Double.NaN;
+        }
+        synchronized (table) {
+            table.observe(download.peer, System.currentTimeMillis(), success, ttfb, throughput);
+        }
+        log.info("Soulseek peer download finished: success={}%, ttfb={}s, throughput={} KB/s",
+                Math.round(success * 100), ttfb, Math.round(throughput));
+    }
+
+    /**
+     * Expected seconds until the whole option is on disk, stretched by the chance the peer fails.
+     */
+    public double expectedSeconds(DownloadOption option) {
+        PeerStatsTable.Estimate estimate;
+        synchronized (table) {
+            estimate = table.estimate(peerKey(peer(option)), System.currentTimeMillis());
+        }
+        return expectedSeconds(option, estimate);
+    }
+
+    /**
+     * Score points for the peer compared to an unknown one on the same option: one per expected minute
+     * slower, capped; a peer known to be fast earns a smaller bonus. Size alone never costs points.
+     */
+    public int penalty(DownloadOption option) {
+        double minutes = (expectedSeconds(option) - expectedSeconds(option, table.prior())) / 60;
+        return (int) Math.max(-MAX_BONUS, Math.min(MAX_PENALTY, Math.round(minutes)));
+    }
+
+    private static double expectedSeconds(DownloadOption option, PeerStatsTable.Estimate estimate) {
+        int files = Math.max(1, option.files().size());
+        double laterKB = option.totalSize() * 1024.0 * (files - 1) / files;
+        double seconds = estimate.ttfbSeconds() + laterKB / Math.max(1, estimate.throughputKBps());
+        return seconds / Math.max(MIN_SUCCESS_RATE, estimate.successRate());
+    }
+
+    /**
+     * The downloader puts the peer's username in the option metadata; the option id is the fallback.
+     */
+    static String peer(DownloadOption option) {
+        Map<String, String> metadata = option.technicalMetadata();
+        String username = metadata == null ? null : metadata.get(PEER_KEY);
+        return username != null ? username : option.id();
+    }
+
+    /**
+     * 64-bit FNV-1a of the username; 0 marks an empty slot in the table, so it is remapped.
+     */
+    static long peerKey(String peer) {
+        long hash = 0xcbf29ce484222325L;
+        String value = peer == null ? "" : peer;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static String key(long chatId, String releaseId) {
+        return chatId + ":" + releaseId;
+    }
+
+    private static class Active {
+        private final long peer;
+        private final long startedAt;
+        private long firstFileAt;
+        private long lastFileAt;
+        private long laterMB;
+        private int filesDone;
+        private int filesFailed;
+
+        private Active(long peer, long startedAt) {
+            this.peer = peer;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.messaging.producer.SearchFilesTaskProducer;
+import com.sashkomusic.mainagent.messaging.producer.dto.SearchFilesTaskDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optionally starts a low-priority download search for the top release as soon as search results are shown,
+ * so its options are already cached when the user clicks ⬇️. Results that arrive before the click are only
+ * cached; a click while the search is still running takes it over instead of sending another one.
+ * {@code download.speculative.hits} / {@code .sent} is the share of speculative searches that paid off;
+ * {@code .misses} counts downloads of releases that weren't speculated on.
+ */
+@Slf4j
+@Component
+public class SpeculativeDownloadSearch {
+
+    private static final int MAX_TRACKED = 200;
+
+    private final SearchFilesTaskProducer searchFilesProducer;
+    private final PartialSearchResults partialResults;
+    private final boolean enabled;
+    private final DownloadEngine engine;
+    private final Duration ttl;
+    private final Counter sent;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<String, Speculation> speculations = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Speculation> eldest) {
+            return size() > MAX_TRACKED;
+        }
+    };
+
+    public SpeculativeDownloadSearch(SearchFilesTaskProducer searchFilesProducer,
+                                     PartialSearchResults partialResults,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${download.speculative.enabled:false}") boolean enabled,
+                                     @Value("${download.speculative.engine:QOBUZ}") DownloadEngine engine,
+                                     @Value("${download.search-cache.ttl:PT15M}") Duration ttl) {
+        this.searchFilesProducer = searchFilesProducer;
+        this.partialResults = partialResults;
+        this.enabled = enabled;
+        this.engine = engine;
+        this.ttl = ttl;
+        this.sent = Counter.builder("download.speculative.sent")
+                .description("Speculative download searches for the top search result")
+                .register(meterRegistry);
+        this.hits = Counter.builder("download.speculative.hits")
+                .description("Downloads of a release that had a speculative search")
+                .register(meterRegistry);
+        this.misses = Counter.builder("download.speculative.misses")
+                .description("Downloads of a release without a speculative search")
+                .register(meterRegistry);
+    }
+
+    public synchronized void speculate(long chatId, ReleaseMetadata release) {
+        if (!enabled || release == null || live(release.id(), engine) != null) {
+            return;
+        }
+        log.info("Speculative {} search for top result releaseId={}", engine, release.id());
+        speculations.put(key(release.id(), engine), new Speculation(chatId, Instant.now()));
+        partialResults.started(chatId, release.id(), engine);
+        searchFilesProducer.send(SearchFilesTaskDto.speculative(chatId, release.id(), release.artist(), release.title(), engine));
+        sent.increment();
+    }
+
+    /**
+     * The user clicked ⬇️ for the release; counts whether a speculative search was there for it.
+     */
+    public synchronized void clicked(String releaseId) {
+        if (!enabled) {
+            return;
+        }
+        Speculation speculation = live(releaseId, engine);
+        if (speculation == null) {
+            misses.increment();
+        } else if (!speculation.clicked) {
+            speculation.clicked = true;
+            hits.increment();
+        }
+    }
+
+    /**
+     * The user asked for this release in this engine; true if a speculative search still running for
+     * the same chat now delivers its results to the user, so no new search is needed.
+     */
+    public synchronized boolean claim(long chatId, String releaseId, DownloadEngine source) {
+        if (!enabled) {
+            return false;
+        }
+        Speculation speculation = live(releaseId, source);
+        if (speculation == null || speculation.done || speculation.chatId != chatId) {
+            return false;
+        }
+        speculation.claimed = true;
+        return true;
+    }
+
+    /**
+     * Whether these results belong to a speculative search nobody is waiting for yet, i.e. they should only be cached.
+     */
+    public synchronized boolean isUnclaimed(long chatId, String releaseId, DownloadEngine source) {
+        Speculation speculation = live(releaseId, source);
+        return speculation != null && speculation.chatId == chatId && !speculation.done && !speculation.claimed;
+    }
+
+    public synchronized void completed(String releaseId, DownloadEngine source) {
+        Speculation speculation = speculations.get(key(releaseId, source));
+        if (speculation != null) {
+            speculation.done = true;
+        }
+    }
+
+    /**
+     * The speculation for the release and engine, or null; one past its TTL is forgotten, so the results
+     * of the search the user sends instead aren't mistaken for it.
+     */
+    private Speculation live(String releaseId, DownloadEngine source) {
+        String key = key(releaseId, source);
+        Speculation speculation = speculations.get(key);
+        if (speculation != null && speculation.startedAt.plus(ttl).isBefore(Instant.now())) {
+            speculations.remove(key);
+            return null;
+        }
+        return speculation;
+    }
+
+    private static String key(String releaseId, DownloadEngine source) {
+        return releaseId + "|" + source;
+    }
+
+    private static class Speculation {
+        private final long chatId;
+        private final Instant startedAt;
+        private boolean claimed;
+        private boolean clicked;
+        private boolean done;
+
+        private Speculation(long chatId, Instant startedAt) {
+            this.chatId = chatId;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.sashkomusic.mainagent.domain.service.process;
+
+import com.sashkomusic.mainagent.config.LibraryConfig;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadataFile;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Releases already in the library, keyed by source id, master id and normalized artist/title.
+ * Ids are namespaced by engine and kind ({@code DISCOGS:master:456}): Discogs release and master ids are
+ * bare numbers from separate sequences, so release 456 must not match an owned release of master 456.
+ * Built from the .release-metadata.json files under {@code library.root-path} in the background at startup,
+ * then kept current as processed releases land in the library.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LibraryIndex {
+
+    private static final String METADATA_FILENAME = ".release-metadata.json";
+
+    private final LibraryConfig libraryConfig;
+    private final ReleaseMetadataReader metadataReader;
+    private final Map<String, OwnedRelease> byId = new ConcurrentHashMap<>();
+    private final Map<String, OwnedRelease> byArtistTitle = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildInBackground() {
+        Thread.ofVirtual().name("library-index").start(this::rebuild);
+    }
+
+    public void rebuild() {
+        Path root = Path.of(libraryConfig.getRootPath());
+        if (!Files.isDirectory(root)) {
+            log.warn("Library root {} not found, library index stays empty", root);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(path -> path.getFileName().toString().equals(METADATA_FILENAME))
+                    .forEach(path -> add(path.getParent()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to scan library {} for the index", root, e);
+        }
+        log.info("Library index: {} releases from {} in {} ms",
+                byArtistTitle.size(), root, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexes a release directory that has just been processed into the library.
+     */
+    public void add(String directoryPath) {
+        if (directoryPath == null || directoryPath.isBlank()) {
+            return;
+        }
+        Path directory = Path.of(directoryPath);
+        if (!Files.isDirectory(directory) && directory.getParent() != null) {
+            // Reported by the processor with its own mount; look under our root by artist/release folder
+            directory = Path.of(libraryConfig.getRootPath())
+                    .resolve(directory.getParent().getFileName())
+                    .resolve(directory.getFileName());
+        }
+        add(directory);
+    }
+
+    private void add(Path directory) {
+        metadataReader.readMetadata(directory).ifPresent(file -> index(file, directory));
+    }
+
+    private void index(ReleaseMetadataFile file, Path directory) {
+        var owned = new OwnedRelease(file.artist(), file.title(), directory);
+        if (file.source() != null && file.sourceId() != null && !file.sourceId().isBlank()) {
+            byId.put(idKey(file.source(), "release", file.sourceId()), owned);
+        }
+        if (file.source() != null && file.masterId() != null && !file.masterId().isBlank()) {
+            byId.put(idKey(file.source(), "master", file.masterId()), owned);
+        }
+        String key = artistTitleKey(file.artist(), file.title());
+        if (key != null) {
+            byArtistTitle.put(key, owned);
+        }
+    }
+
+    public Optional<OwnedRelease> find(ReleaseMetadata release) {
+        OwnedRelease owned = null;
+        if (release.source() != null && release.id() != null) {
+            owned = byId.get(idKey(release.source(), "release", release.id()));
+        }
+        if (owned == null && release.source() != null && release.masterId() != null) {
+            owned = byId.get(idKey(release.source(), "master", release.masterId()));
+        }
+        if (owned == null) {
+            String key = artistTitleKey(release.artist(), release.title());
+            owned = key != null ? byArtistTitle.get(key) : null;
+        }
+        return Optional.ofNullable(owned);
+    }
+
+    public int size() {
+        return byArtistTitle.size();
+    }
+
+    private static String idKey(SearchEngine source, String kind, String id) {
+        return source + ":" + kind + ":" + id;
+    }
+
+    private static String artistTitleKey(String artist, String title) {
+        if (artist == null || title == null) {
+            return null;
+        }
+        return normalize(artist) + "\n" + normalize(title);
+    }
+
+    static String normalize(String text) {
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return plain.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    public record OwnedRelease(String artist, String title, Path directory) {
+    }
+}
@@ -0,0 +1,294 @@
+package com.sashkomusic.mainagent.domain.service.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent registry behind the ids used in callback data ({@code DL:}, {@code STREAM:}, {@code SEARCH_ALT:}).
+ * <p>
+ * Long references (e.g. Bandcamp URLs) get sequential base36 ids that never collide and stay well under
+ * Telegram's 64-byte callback limit. Releases are appended to a JSON-lines log and looked up through an
+ * in-memory id → offset map, so buttons from old searches still resolve after a restart or "стоп".
+ * If the log can't be opened the registry keeps working in memory only, for the lifetime of the process.
+ */
+@Slf4j
+@Component
+public class ReleaseRegistry {
+
+    private static final int MAX_UNPERSISTED = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader entryReader;
+    private final Path logFile;
+    private final Duration retention;
+
+    private final Map<String, String> idsByReference = new HashMap<>();
+    private final Map<String, String> referencesById = new HashMap<>();
+    private final Map<String, Location> releases = new HashMap<>();
+    private final Map<String, ReleaseMetadata> unpersisted = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReleaseMetadata> eldest) {
+            return size() > MAX_UNPERSISTED;
+        }
+    };
+    private RandomAccessFile journal;
+    private long sequence;
+
+    public ReleaseRegistry(ObjectMapper objectMapper,
+                           @Value("${search.release-registry.path}") String logFile,
+                           @Value("${search.release-registry.retention:P180D}") Duration retention) {
+        this.objectMapper = objectMapper;
+        this.entryReader = objectMapper.readerFor(Entry.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.logFile = Path.of(logFile);
+        this.retention = retention;
+    }
+
+    /**
+     * Short id for a long reference, e.g. {@code bandcamp:2bz} for a release URL.
+     * The same reference always maps to the same id.
+     */
+    public synchronized String shortId(String namespace, String reference) {
+        String key = namespace + ":" + reference;
+        String existing = idsByReference.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        String id = namespace + ":" + Long.toString(++sequence, Character.MAX_RADIX);
+        append(new Entry(id, reference, null, Instant.now().getEpochSecond()));
+        idsByReference.put(key, id);
+        referencesById.put(id, reference);
+        return id;
+    }
+
+    public synchronized Optional<String> reference(String id) {
+        return Optional.ofNullable(referencesById.get(id));
+    }
+
+    public synchronized void remember(ReleaseMetadata release) {
+        if (release == null || release.id() == null) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        Location previous = releases.get(release.id());
+        // Re-append an unchanged release once its entry is a quarter of the way to expiry, so releases
+        // that keep showing up in searches never age out at startup
+        if (previous != null && previous.hash() == release.hashCode()
+                && now - previous.saved() < retention.dividedBy(4).toSeconds()) {
+            return;
+        }
+        long offset = append(new Entry(release.id(), null, release, now));
+        if (offset >= 0) {
+            releases.put(release.id(), new Location(offset, release.hashCode(), now));
+        } else {
+            unpersisted.put(release.id(), release);
+        }
+    }
+
+    public synchronized Optional<ReleaseMetadata> find(String id) {
+        Location location = releases.get(id);
+        if (location == null || journal == null) {
+            return Optional.ofNullable(unpersisted.get(id));
+        }
+        try {
+            journal.seek(location.offset());
+            Entry entry = entryReader.readValue(readLine(journal));
+            return Optional.ofNullable(entry.release());
+        } catch (IOException e) {
+            log.warn("Could not read release {} from registry: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public synchronized int size() {
+        return releases.size() + unpersisted.size();
+    }
+
+    @PostConstruct
+    synchronized void load() {
+        try {
+            open();
+        } catch (IOException e) {
+            log.error("Release registry {} is unavailable, keeping releases in memory only: {}", logFile, e.toString());
+            releases.clear();
+            journal = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        long expiresBefore = Instant.now().minus(retention).getEpochSecond();
+        int lines = 0;
+        long complete = 0;
+
+        if (Files.exists(logFile)) {
+            try (var in = new BufferedInputStream(Files.newInputStream(logFile), 256 * 1024)) {
+                long offset = 0;
+                var line = new ByteArrayOutputStream(1024);
+                int b;
+                while ((b = in.read()) != -1) {
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    lines++;
+                    index(line.toString(StandardCharsets.UTF_8), offset, expiresBefore);
+                    offset += line.size() + 1;
+                    line.reset();
+                }
+                complete = offset;
+            }
+        }
+
+        // Rewrite only when superseded or expired lines make up most of the log
+        if (lines > 2 * (releases.size() + referencesById.size())) {
+            complete = compact();
+        }
+
+        journal = new RandomAccessFile(logFile.toFile(), "rw");
+        if (journal.length() > complete) {
+            // Drop a line torn by a crash mid-append so the next entry starts clean
+            journal.setLength(complete);
+        }
+        log.info("Release registry loaded {} releases and {} short ids from {}",
+                releases.size(), referencesById.size(), logFile);
+    }
+
+    private void index(String line, long offset, long expiresBefore) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            Entry entry = entryReader.readValue(line);
+            if (entry.reference() != null) {
+                // Short ids are kept forever so the sequence is never reused
+                idsByReference.put(namespace(entry.id()) + ":" + entry.reference(), entry.id());
+                referencesById.put(entry.id(), entry.reference());
+                sequence = Math.max(sequence, parseSequence(entry.id()));
+            } else if (entry.release() != null) {
+                if (entry.saved() < expiresBefore) {
+                    releases.remove(entry.id());
+                } else {
+                    releases.put(entry.id(), new Location(offset, entry.release().hashCode(), entry.saved()));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Skipping malformed release registry line at offset {}: {}", offset, e.getMessage());
+        }
+    }
+
+    private long compact() throws IOException {
+        Path compacted = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        Map<String, Location> moved = new HashMap<>();
+        long written = 0;
+
+        try (var in = new RandomAccessFile(logFile.toFile(), "r");
+             var out = new BufferedOutputStream(Files.newOutputStream(compacted))) {
+            for (var reference : referencesById.entrySet()) {
+                written += write(out, new Entry(reference.getKey(), reference.getValue(), null, 0));
+            }
+            for (var release : releases.entrySet()) {
+                in.seek(release.getValue().offset());
+                byte[] line = (readLine(in) + "\n").getBytes(StandardCharsets.UTF_8);
+                out.write(line);
+                moved.put(release.getKey(), new Location(written, release.getValue().hash(), release.getValue().saved()));
+                written += line.length;
+            }
+        }
+
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        releases.putAll(moved);
+        log.info("Compacted release registry to {} releases", releases.size());
+        return written;
+    }
+
+    private long append(Entry entry) {
+        if (journal == null) {
+            return -1;
+        }
+        try {
+            long offset = journal.length();
+            journal.seek(offset);
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            journal.write(line);
+            return offset;
+        } catch (IOException e) {
+            log.error("Could not append {} to release registry: {}", entry.id(), e.getMessage());
+            return -1;
+        }
+    }
+
+    private int write(OutputStream out, Entry entry) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        out.write(line);
+        return line.length;
+    }
+
+    /**
+     * RandomAccessFile.readLine decodes bytes as Latin-1 one read at a time, so read chunks and decode UTF-8 ourselves.
+     */
+    private static String readLine(RandomAccessFile in) throws IOException {
+        var bytes = new ByteArrayOutputStream(2048);
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (chunk[i] == '\n') {
+                    bytes.write(chunk, 0, i);
+                    return bytes.toString(StandardCharsets.UTF_8);
+                }
+            }
+            bytes.write(chunk, 0, read);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String namespace(String id) {
+        int separator = id.lastIndexOf(':');
+        return separator > 0 ? id.substring(0, separator) : "";
+    }
+
+    private static long parseSequence(String id) {
+        try {
+            return Long.parseLong(id.substring(id.lastIndexOf(':') + 1), Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String id, String reference, ReleaseMetadata release, long saved) {
+    }
+
+    private record Location(long offset, int hash, long saved) {
+    }
+}
@@ -5,8 +5,10 @@ import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
 import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
 import com.sashkomusic.mainagent.domain.model.SearchEngine;
 import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.service.download.SpeculativeDownloadSearch;
 import com.sashkomusic.mainagent.domain.util.ReleaseCardFormatter;
 import com.sashkomusic.mainagent.domain.util.SearchUrlUtils;
+import com.sashkomusic.mainagent.infrastracture.client.coverart.CoverArtCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,8 @@ public class ReleaseSearchFlowService {
     private final AiService analyzer;
     private final Map<SearchEngine, SearchEngineService> searchEngines;
     private final SearchContextService contextService;
+    private final CoverArtCache coverArtCache;
+    private final SpeculativeDownloadSearch speculativeSearch;
 
     public List<BotResponse> searchDefault(long chatId, String rawInput) {
         var searchRequest = analyzer.buildSearchRequest(rawInput);
@@ -108,6 +112,15 @@ public class ReleaseSearchFlowService {
             return List.of(BotResponse.text("більше результатів немає."));
         }
 
+        // Covers for this page and the next one download while the cards are being sent
+        coverArtCache.prefetch(releases.subList(start, Math.min(start + 2 * PAGE_SIZE, releases.size())).stream()
+                .map(ReleaseMetadata::coverUrl)
+                .toList());
+
+        if (page == 0) {
+            speculativeSearch.speculate(chatId, releases.getFirst());
+        }
+
         responses.add(BotResponse.text(resolveFoundReleasesMessage(releases, page, searchEngine)));
 
         int end = Math.min(start + PAGE_SIZE, releases.size());
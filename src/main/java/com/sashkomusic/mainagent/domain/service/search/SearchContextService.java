@@ -16,24 +16,37 @@ public class SearchContextService {
     private final Map<String, ReleaseMetadata> releaseMetadata = new ConcurrentHashMap<>();
     private final Map<Long, SearchContext> userSearches = new ConcurrentHashMap<>();
     private final Map<SearchEngine, SearchEngineService> searchEngines;
+    private final ReleaseRegistry releaseRegistry;
 
     // not used currently
     private final Map<String, Map<String, String>> platformLinksCache = new ConcurrentHashMap<>();
 
-    public SearchContextService(Map<SearchEngine, SearchEngineService> searchEngines) {
+    public SearchContextService(Map<SearchEngine, SearchEngineService> searchEngines, ReleaseRegistry releaseRegistry) {
         this.searchEngines = searchEngines;
+        this.releaseRegistry = releaseRegistry;
     }
 
     public ReleaseMetadata getReleaseMetadata(String releaseId) {
-        return releaseMetadata.get(releaseId);
+        ReleaseMetadata metadata = releaseMetadata.get(releaseId);
+        if (metadata != null) {
+            return metadata;
+        }
+        // Buttons from searches before a restart or "стоп" resolve from the persistent registry
+        return releaseRegistry.find(releaseId)
+                .map(found -> {
+                    releaseMetadata.put(releaseId, found);
+                    return found;
+                })
+                .orElse(null);
     }
 
     public void saveReleaseMetadata(ReleaseMetadata metadata) {
         releaseMetadata.put(metadata.id(), metadata);
+        releaseRegistry.remember(metadata);
     }
 
     public void saveSearchContext(long chatId, SearchEngine source, String rawInput, MetadataSearchRequest request, List<ReleaseMetadata> results) {
-        results.forEach(r -> releaseMetadata.put(r.id(), r));
+        results.forEach(this::saveReleaseMetadata);
 
         List<String> releaseIds = results.stream()
                 .map(ReleaseMetadata::id)
@@ -88,7 +101,8 @@ public class SearchContextService {
         log.info("Fetching tracks for releaseId={}, source={}", releaseId, metadata.source());
 
         try {
-            SearchEngine source = getSource(chatId);
+            // The release knows its engine, so this works after the search session is gone
+            SearchEngine source = metadata.source();
             SearchEngineService engine = searchEngines.get(source);
 
             List<TrackMetadata> tracks = engine.getTracks(releaseId);
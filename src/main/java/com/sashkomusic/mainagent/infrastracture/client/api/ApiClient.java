@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.infrastracture.client.api;
 
 import com.sashkomusic.mainagent.infrastracture.client.api.dto.TrackDto;
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
@@ -16,9 +17,12 @@ public class ApiClient {
 
     private final RestClient restClient;
 
-    public ApiClient(RestClient.Builder restClientBuilder, @Value("${sm-api.base-url}") String apiBaseUrl) {
+    public ApiClient(RestClient.Builder restClientBuilder, @Value("${sm-api.base-url}") String apiBaseUrl,
+                     HttpClientFactory httpClients) {
         this.restClient = restClientBuilder
-                .baseUrl(apiBaseUrl).build();
+                .baseUrl(apiBaseUrl)
+                .requestFactory(httpClients.requestFactory("sm-api"))
+                .build();
     }
 
     @CircuitBreaker(name = "apiClient", fallbackMethod = "findTrackByArtistAndTitleFallback")
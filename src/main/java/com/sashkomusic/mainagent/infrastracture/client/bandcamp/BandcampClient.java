@@ -5,32 +5,53 @@ import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
 import com.sashkomusic.mainagent.domain.model.ReleaseMetadataFile;
 import com.sashkomusic.mainagent.domain.model.SearchEngine;
 import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import com.sashkomusic.mainagent.domain.service.search.ReleaseRegistry;
 import com.sashkomusic.mainagent.domain.service.search.SearchContextService;
 import com.sashkomusic.mainagent.domain.service.search.SearchEngineService;
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class BandcampClient implements SearchEngineService {
 
+    private static final int MAX_SEARCH_PAGES = 3;
+
     private final RestClient client;
     private final SearchContextService contextHolder;
+    private final BandcampPageReader pageReader;
+    private final ReleaseRegistry releaseRegistry;
+    private final ExecutorService pageExecutor;
 
-    public BandcampClient(RestClient.Builder builder, @Lazy SearchContextService contextHolder) {
+    public BandcampClient(RestClient.Builder builder, @Lazy SearchContextService contextHolder,
+                          BandcampPageReader pageReader, ReleaseRegistry releaseRegistry,
+                          HttpClientFactory httpClients) {
         this.contextHolder = contextHolder;
+        this.pageReader = pageReader;
+        this.releaseRegistry = releaseRegistry;
+        this.pageExecutor = httpClients.executor();
         this.client = builder
                 .baseUrl("https://bandcamp.com")
+                .requestFactory(httpClients.requestFactory("bandcamp"))
                 .defaultHeader("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36")
                 .build();
     }
@@ -42,30 +63,23 @@ public class BandcampClient implements SearchEngineService {
         String query = buildSearchQuery(request);
         log.info("Searching Bandcamp with query: {}", query);
 
+        // Request all pages up front; later pages are cancelled once they turn out to be unnecessary
+        List<Future<SearchPage>> pages = new ArrayList<>();
+        for (int page = 1; page <= MAX_SEARCH_PAGES; page++) {
+            final int currentPage = page;
+            pages.add(pageExecutor.submit(() -> fetchSearchPage(query, currentPage)));
+        }
+
         try {
-            // Fetch first 3 pages of results
             List<BandcampSearchResponse.Result> allResults = new ArrayList<>();
 
-            for (int page = 1; page <= 3; page++) {
-                final int currentPage = page; // Make effectively final for lambda
-                log.info("Fetching Bandcamp page {}", currentPage);
-
-                String html = client.get()
-                        .uri(uriBuilder -> {
-                            var builder = uriBuilder.path("/search").queryParam("q", query);
-                            if (currentPage > 1) {
-                                builder.queryParam("page", currentPage);
-                            }
-                            return builder.build();
-                        })
-                        .retrieve()
-                        .body(String.class);
-
-                if (html == null || html.isEmpty()) {
+            for (int page = 1; page <= pages.size(); page++) {
+                SearchPage searchPage = awaitPage(pages.get(page - 1), page);
+                if (searchPage == null) {
                     break;
                 }
 
-                List<BandcampSearchResponse.Result> pageResults = parseSearchResults(html);
+                List<BandcampSearchResponse.Result> pageResults = searchPage.results();
                 if (pageResults.isEmpty()) {
                     log.info("No results on page {}, stopping pagination", page);
                     break;
@@ -74,8 +88,13 @@ public class BandcampClient implements SearchEngineService {
                 allResults.addAll(pageResults);
                 log.info("Page {} added {} results (total: {})", page, pageResults.size(), allResults.size());
 
+                if (hasExactMatch(pageResults, request)) {
+                    log.info("Exact match found on page {}, skipping remaining pages", page);
+                    break;
+                }
+
                 // Check if there's a next page
-                if (!hasNextPage(html)) {
+                if (!searchPage.hasNext()) {
                     log.info("No more pages available, stopping at page {}", page);
                     break;
                 }
@@ -91,9 +110,56 @@ public class BandcampClient implements SearchEngineService {
         } catch (Exception ex) {
             log.error("Error searching Bandcamp: {}", ex.getMessage());
             throw ex;
+        } finally {
+            pages.forEach(page -> page.cancel(true));
+        }
+    }
+
+    private SearchPage fetchSearchPage(String query, int page) {
+        log.info("Fetching Bandcamp page {}", page);
+        return client.get()
+                .uri(uriBuilder -> {
+                    var builder = uriBuilder.path("/search").queryParam("q", query);
+                    if (page > 1) {
+                        builder.queryParam("page", page);
+                    }
+                    return builder.build();
+                })
+                .exchange((req, res) -> {
+                    if (res.getStatusCode().isError()) {
+                        throw new RestClientException("Bandcamp search page " + page + " failed with status " + res.getStatusCode());
+                    }
+                    try (Reader reader = new InputStreamReader(res.getBody(), StandardCharsets.UTF_8)) {
+                        return parseSearchPage(reader);
+                    }
+                });
+    }
+
+    private SearchPage awaitPage(Future<SearchPage> future, int page) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Bandcamp page " + page, e);
+        } catch (ExecutionException e) {
+            if (page == 1) {
+                throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+            }
+            // Results from earlier pages are still good
+            log.warn("Bandcamp page {} failed, keeping earlier pages: {}", page, e.getCause().getMessage());
+            return null;
         }
     }
 
+    private boolean hasExactMatch(List<BandcampSearchResponse.Result> results, MetadataSearchRequest request) {
+        if (request.artist().isEmpty() || request.release().isEmpty()) {
+            return false;
+        }
+        return results.stream().anyMatch(r ->
+                r.artist().equalsIgnoreCase(request.artist().trim())
+                        && r.title().equalsIgnoreCase(request.release().trim()));
+    }
+
     public List<ReleaseMetadata> searchReleasesFallback(MetadataSearchRequest request, Exception e) {
         log.warn("Bandcamp searchReleases fallback triggered for query '{}': {}",
             buildSearchQuery(request), e.getMessage());
@@ -115,55 +181,73 @@ public class BandcampClient implements SearchEngineService {
         return String.join(" ", parts);
     }
 
-    private List<BandcampSearchResponse.Result> parseSearchResults(String html) {
-        List<BandcampSearchResponse.Result> results = new ArrayList<>();
-
-        try {
-            Document doc = Jsoup.parse(html);
-
-            // Bandcamp search results are in <li class="searchresult">
-            var resultElements = doc.select("li.searchresult");
-
-            log.info("Found {} search result elements", resultElements.size());
-
-            for (Element element : resultElements) {
-                try {
-                    // Extract data from each result
-                    String type = extractType(element);
-
-                    // Skip non-album/track results
-                    if (!type.equals("album") && !type.equals("track")) {
-                        continue;
-                    }
+    private record SearchPage(List<BandcampSearchResponse.Result> results, boolean hasNext) {
+    }
 
-                    String artist = extractArtist(element);
-                    String title = extractTitle(element);
-                    String url = extractUrl(element);
-                    String imageUrl = extractImageUrl(element);
-                    String year = extractYear(element);
-                    List<String> tags = extractTags(element);
-
-                    if (!title.isEmpty() && !url.isEmpty()) {
-                        results.add(new BandcampSearchResponse.Result(
-                                artist,
-                                title,
-                                type,
-                                url,
-                                imageUrl,
-                                year,
-                                tags
-                        ));
+    /**
+     * Single streaming pass over a search page: result blocks are mapped as soon as they are parsed
+     * and removed afterwards, and the pagination link is picked up in the same pass.
+     */
+    private SearchPage parseSearchPage(Reader html) {
+        List<BandcampSearchResponse.Result> results = new ArrayList<>();
+        boolean hasNext = false;
+        int elements = 0;
+
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, "https://bandcamp.com")) {
+            Element element;
+            // Bandcamp search results are in <li class="searchresult">, pagination in <a class="nextprev next">
+            while ((element = streamer.selectNext("li.searchresult, a.nextprev.next")) != null) {
+                if (element.is("a")) {
+                    hasNext = true;
+                } else {
+                    elements++;
+                    var result = parseSearchResult(element);
+                    if (result != null) {
+                        results.add(result);
                     }
-                } catch (Exception ex) {
-                    log.warn("Error parsing search result element: {}", ex.getMessage());
                 }
+                element.remove();
             }
-
         } catch (Exception ex) {
             log.error("Error parsing HTML: {}", ex.getMessage());
         }
 
-        return results;
+        log.info("Found {} search result elements", elements);
+        return new SearchPage(results, hasNext);
+    }
+
+    private BandcampSearchResponse.Result parseSearchResult(Element element) {
+        try {
+            // Extract data from each result
+            String type = extractType(element);
+
+            // Skip non-album/track results
+            if (!type.equals("album") && !type.equals("track")) {
+                return null;
+            }
+
+            String artist = extractArtist(element);
+            String title = extractTitle(element);
+            String url = extractUrl(element);
+            String imageUrl = extractImageUrl(element);
+            String year = extractYear(element);
+            List<String> tags = extractTags(element);
+
+            if (!title.isEmpty() && !url.isEmpty()) {
+                return new BandcampSearchResponse.Result(
+                        artist,
+                        title,
+                        type,
+                        url,
+                        imageUrl,
+                        year,
+                        tags
+                );
+            }
+        } catch (Exception ex) {
+            log.warn("Error parsing search result element: {}", ex.getMessage());
+        }
+        return null;
     }
 
     private String extractType(Element element) {
@@ -263,18 +347,6 @@ public class BandcampClient implements SearchEngineService {
         return List.of();
     }
 
-    private boolean hasNextPage(String html) {
-        try {
-            Document doc = Jsoup.parse(html);
-            // Check for "next" link in pagination
-            Element nextLink = doc.selectFirst("a.nextprev.next");
-            return nextLink != null;
-        } catch (Exception ex) {
-            log.warn("Error checking for next page: {}", ex.getMessage());
-            return false;
-        }
-    }
-
     private List<ReleaseMetadata> mapToDomain(List<BandcampSearchResponse.Result> results) {
         log.info("Mapping {} Bandcamp results to domain", results.size());
 
@@ -353,9 +425,9 @@ public class BandcampClient implements SearchEngineService {
                 .map(e -> e.getKey().toLowerCase())
                 .toList(); // Keep all tags, display will be limited
 
-        // Create shorter release ID using URL hash to stay under Telegram's 64-byte limit
-        // Format: "bandcamp:hash" where hash is a short hex string
-        String releaseId = "bandcamp:" + Integer.toHexString(url.hashCode());
+        // URLs don't fit Telegram's 64-byte callback limit, so use a registered short id
+        // Format: "bandcamp:<base36 sequence>", unique per URL
+        String releaseId = releaseRegistry.shortId("bandcamp", url);
 
         return new ReleaseMetadata(
                 releaseId,
@@ -396,26 +468,24 @@ public class BandcampClient implements SearchEngineService {
                 throw new RuntimeException("Empty response from Bandcamp URL: " + url);
             }
 
-            Document doc = Jsoup.parse(html);
-
-            // Extract metadata from page
-            String artist = extractArtistFromPage(doc);
-            String title = extractTitleFromPage(doc);
-            String year = extractYearFromPage(doc);
-            String imageUrl = extractImageFromPage(doc);
-            List<String> tags = extractTagsFromPage(doc);
-            String type = extractTypeFromPage(doc);
-            int trackCount = extractTrackCount(doc);
+            // Release data and tracklist come from the embedded data-tralbum JSON in one parse
+            var page = pageReader.read(Jsoup.parse(html, url));
 
             // Clean special characters
-            artist = clean(artist);
-            title = clean(title);
-
-            // Extract tracks from page
-            List<TrackMetadata> tracks = extractTracksFromPage(doc, artist);
+            String artist = clean(page.artist());
+            String title = clean(page.title());
+            String year = page.year();
+            String type = page.type();
+            String imageUrl = page.imageUrl();
+            List<String> tags = page.tags();
+
+            List<TrackMetadata> tracks = page.tracks().stream()
+                    .map(t -> t.artist() != null ? t : t.withArtist(artist))
+                    .toList();
+            int trackCount = tracks.size();
 
-            // Create release ID using URL hash
-            String releaseId = "bandcamp:" + Integer.toHexString(url.hashCode());
+            // Same short id as the search result for this URL
+            String releaseId = releaseRegistry.shortId("bandcamp", url);
 
             log.info("Extracted metadata: {} - {} ({})", artist, title, year);
 
@@ -449,203 +519,6 @@ public class BandcampClient implements SearchEngineService {
         return null;
     }
 
-    private String extractArtistFromPage(Document doc) {
-        // Try meta tag first
-        Element metaArtist = doc.selectFirst("meta[property=og:site_name]");
-        if (metaArtist != null) {
-            String artist = metaArtist.attr("content");
-            if (!artist.isEmpty()) {
-                return artist;
-            }
-        }
-
-        // Try span with itemprop
-        Element artistSpan = doc.selectFirst("span[itemprop=byArtist]");
-        if (artistSpan != null) {
-            return artistSpan.text().trim();
-        }
-
-        // Try band name link
-        Element bandLink = doc.selectFirst("p#band-name-location span.title");
-        if (bandLink != null) {
-            return bandLink.text().trim();
-        }
-
-        return "Unknown Artist";
-    }
-
-    private String extractTitleFromPage(Document doc) {
-        // Try h2.trackTitle first for a clean title
-        Element titleElement = doc.selectFirst("h2.trackTitle");
-        if (titleElement != null && !titleElement.text().trim().isEmpty()) {
-            return titleElement.text().trim();
-        }
-
-        // Fallback to meta tag and clean it
-        Element metaTitle = doc.selectFirst("meta[property=og:title]");
-        if (metaTitle != null) {
-            String title = metaTitle.attr("content");
-            if (!title.isEmpty()) {
-                // handle "Title, by Artist"
-                return title.split(", by ")[0];
-            }
-        }
-
-        return "Unknown Title";
-    }
-
-    private String extractYearFromPage(Document doc) {
-        // Try meta datePublished
-        Element metaDate = doc.selectFirst("meta[itemprop=datePublished]");
-        if (metaDate != null) {
-            String datePublished = metaDate.attr("content"); // Format: "20231031"
-            if (datePublished != null && datePublished.length() >= 4) {
-                String year = datePublished.substring(0, 4);
-                if (year.matches("\\d{4}")) {
-                    log.debug("Extracted year {} from meta[itemprop=datePublished]", year);
-                    return year;
-                }
-            }
-        }
-
-        // Try .tralbumData script (JSON)
-        Element tralbumScript = doc.selectFirst("script[data-tralbum]");
-        if (tralbumScript != null) {
-            String json = tralbumScript.attr("data-tralbum");
-            if (json != null && json.contains("\"release_date\"")) {
-                try {
-                    int startIdx = json.indexOf("\"release_date\":") + 15;
-                    String dateStr = json.substring(startIdx, startIdx + 25).split("\"")[0];
-                    java.util.regex.Pattern yearPattern = java.util.regex.Pattern.compile("\\b(\\d{4})\\b");
-                    java.util.regex.Matcher matcher = yearPattern.matcher(dateStr);
-                    if (matcher.find()) {
-                        String year = matcher.group(1);
-                        log.debug("Extracted year {} from script[data-tralbum]", year);
-                        return year;
-                    }
-                } catch (Exception e) {
-                    log.debug("Failed to parse release_date from JSON", e);
-                }
-            }
-        }
-        
-        // Fallback to .tralbum-credits div
-        Element creditsElement = doc.selectFirst("div.tralbum-credits");
-        if (creditsElement != null) {
-            String text = creditsElement.text();
-            // Look for a 4-digit number, probably the year
-            java.util.regex.Pattern yearPattern = java.util.regex.Pattern.compile("\\b(\\d{4})\\b");
-            java.util.regex.Matcher matcher = yearPattern.matcher(text);
-            if (matcher.find()) {
-                String year = matcher.group(1);
-                log.debug("Extracted year {} from div.tralbum-credits", year);
-                return year;
-            }
-        }
-
-        log.warn("Could not extract year from Bandcamp page");
-        return "";
-    }
-
-    private String extractImageFromPage(Document doc) {
-        // Try meta og:image
-        Element metaImage = doc.selectFirst("meta[property=og:image]");
-        if (metaImage != null) {
-            String imageUrl = metaImage.attr("content");
-            if (!imageUrl.isEmpty()) {
-                return imageUrl;
-            }
-        }
-
-        // Try #tralbumArt img
-        Element artImg = doc.selectFirst("#tralbumArt img");
-        if (artImg != null) {
-            return artImg.attr("src");
-        }
-
-        return "";
-    }
-
-    private List<String> extractTagsFromPage(Document doc) {
-        List<String> tags = new ArrayList<>();
-
-        // Tags are in .tralbumData script or in tags section
-        var tagLinks = doc.select("a.tag");
-        for (Element tagLink : tagLinks) {
-            String tag = tagLink.text().trim().toLowerCase();
-            if (!tag.isEmpty()) {
-                tags.add(tag);
-            }
-        }
-
-        return tags;
-    }
-
-    private String extractTypeFromPage(Document doc) {
-        // Check if it's an album or track
-        Element trackList = doc.selectFirst("table.track_list");
-        if (trackList != null) {
-            var trackRows = trackList.select("tr.track_row_view");
-            if (trackRows.size() > 1) {
-                return "Album";
-            }
-        }
-        return "Track";
-    }
-
-    private int extractTrackCount(Document doc) {
-        Element trackList = doc.selectFirst("table.track_list");
-        if (trackList != null) {
-            var trackRows = trackList.select("tr.track_row_view");
-            return trackRows.size();
-        }
-        return 0;
-    }
-
-    private List<TrackMetadata> extractTracksFromPage(Document doc, String albumArtist) {
-        var trackRows = doc.select("table.track_list tr.track_row_view");
-        log.info("Found {} track rows in Bandcamp page", trackRows.size());
-
-        List<TrackMetadata> tracks = new ArrayList<>();
-        int trackNumber = 1;
-
-        for (Element row : trackRows) {
-            // Try more specific selector first
-            Element titleElement = row.selectFirst("td.title-col div.title span.track-title");
-            if (titleElement == null) {
-                // Fallback to simpler selector
-                titleElement = row.selectFirst("span.track-title");
-                log.debug("Using fallback selector for track {}", trackNumber);
-            }
-            if (titleElement != null) {
-                String title = titleElement.text().trim();
-                log.info("Extracted track {} title: '{}'", trackNumber, title);
-                if (!title.isEmpty()) {
-                    // Try to parse per-track artist from title if format is "Artist - Title"
-                    String trackArtist = albumArtist;
-                    String trackTitle = title;
-
-                    if (title.contains(" - ")) {
-                        int dashIndex = title.indexOf(" - ");
-                        String possibleArtist = title.substring(0, dashIndex).trim();
-                        String possibleTitle = title.substring(dashIndex + 3).trim();
-
-                        // Only split if the artist part looks reasonable
-                        if (!possibleArtist.isEmpty() && possibleArtist.length() < 100 && !possibleTitle.isEmpty()) {
-                            trackArtist = possibleArtist;
-                            trackTitle = possibleTitle;
-                        }
-                    }
-
-                    tracks.add(new TrackMetadata(trackNumber, trackArtist, trackTitle));
-                    trackNumber++;
-                }
-            }
-        }
-
-        return tracks;
-    }
-
     @CircuitBreaker(name = "bandcampClient", fallbackMethod = "getTracksFallback")
     @Retry(name = "bandcampClient")
     @Override
@@ -662,54 +535,8 @@ public class BandcampClient implements SearchEngineService {
             String url = metadata.masterId(); // Full Bandcamp URL stored here
             log.info("Fetching tracklist from URL: {}", url);
 
-            // Fetch release page HTML
-            String html = client.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(String.class);
-
-            if (html == null || html.isEmpty()) {
-                log.warn("Empty response from Bandcamp URL: {}", url);
-                return List.of();
-            }
-
-            // Parse track list from table
-            Document doc = Jsoup.parse(html);
-            var trackRows = doc.select("table.track_list tr.track_row_view");
-
-            // Get album artist from metadata
-            String albumArtist = metadata.artist();
-
-            List<TrackMetadata> tracks = new ArrayList<>();
-            int trackNumber = 1;
-
-            for (Element row : trackRows) {
-                Element titleElement = row.selectFirst("span.track-title");
-                if (titleElement != null) {
-                    String title = titleElement.text().trim();
-                    if (!title.isEmpty()) {
-                        // Try to parse per-track artist from title if format is "Artist - Title"
-                        String trackArtist = albumArtist;
-                        String trackTitle = title;
-
-                        if (title.contains(" - ")) {
-                            int dashIndex = title.indexOf(" - ");
-                            String possibleArtist = title.substring(0, dashIndex).trim();
-                            String possibleTitle = title.substring(dashIndex + 3).trim();
-
-                            // Only split if the artist part looks reasonable (not empty, not too long)
-                            if (!possibleArtist.isEmpty() && possibleArtist.length() < 100 && !possibleTitle.isEmpty()) {
-                                trackArtist = possibleArtist;
-                                trackTitle = possibleTitle;
-                                log.debug("Parsed track artist from title: '{}' - '{}'", trackArtist, trackTitle);
-                            }
-                        }
-
-                        tracks.add(new TrackMetadata(trackNumber, trackArtist, trackTitle));
-                        trackNumber++;
-                    }
-                }
-            }
+            // Reuse the single release page fetch, tracklist comes from the same parsed page
+            List<TrackMetadata> tracks = getReleaseByUrl(url).tracks();
 
             log.info("Found {} tracks for release {}", tracks.size(), releaseId);
             return tracks;
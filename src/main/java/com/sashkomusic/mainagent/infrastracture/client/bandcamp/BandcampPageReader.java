@@ -0,0 +1,282 @@
+package com.sashkomusic.mainagent.infrastracture.client.bandcamp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads release data from a Bandcamp album/track page. The embedded data-tralbum JSON carries artist,
+ * title, release date and the full tracklist; the DOM selectors are only a fallback for pages without it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BandcampPageReader {
+
+    private static final Pattern YEAR_PATTERN = Pattern.compile("\\b(\\d{4})\\b");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Tracks without a per-track artist have a null artist; the caller fills in the album artist.
+     */
+    public record BandcampPage(
+            String artist,
+            String title,
+            String year,
+            String type,
+            List<TrackMetadata> tracks,
+            String imageUrl,
+            List<String> tags
+    ) {
+    }
+
+    public BandcampPage read(Document doc) {
+        String imageUrl = extractImageFromPage(doc);
+        List<String> tags = extractTagsFromPage(doc);
+
+        Optional<BandcampTralbum> tralbum = readTralbum(doc);
+        if (tralbum.isPresent() && tralbum.get().current() != null && tralbum.get().trackinfo() != null) {
+            return fromTralbum(tralbum.get(), imageUrl, tags);
+        }
+
+        log.info("No data-tralbum JSON on Bandcamp page, falling back to DOM extraction");
+        return new BandcampPage(
+                extractArtistFromPage(doc),
+                extractTitleFromPage(doc),
+                extractYearFromPage(doc),
+                extractTypeFromPage(doc),
+                extractTracksFromPage(doc),
+                imageUrl,
+                tags
+        );
+    }
+
+    private Optional<BandcampTralbum> readTralbum(Document doc) {
+        Element script = doc.selectFirst("script[data-tralbum]");
+        if (script == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(script.attr("data-tralbum"), BandcampTralbum.class));
+        } catch (Exception e) {
+            log.warn("Failed to parse data-tralbum JSON: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private BandcampPage fromTralbum(BandcampTralbum tralbum, String imageUrl, List<String> tags) {
+        var current = tralbum.current();
+
+        String releaseDate = tralbum.albumReleaseDate() != null ? tralbum.albumReleaseDate() : current.releaseDate();
+        String year = "";
+        if (releaseDate != null) {
+            Matcher matcher = YEAR_PATTERN.matcher(releaseDate); // "31 Oct 2023 00:00:00 GMT"
+            if (matcher.find()) {
+                year = matcher.group(1);
+            }
+        }
+
+        List<TrackMetadata> tracks = new ArrayList<>();
+        int position = 1;
+        for (var info : tralbum.trackinfo()) {
+            if (info.title() == null || info.title().isBlank()) {
+                continue;
+            }
+            int number = info.trackNum() != null && info.trackNum() > 0 ? info.trackNum() : position;
+            Integer duration = info.duration() != null && info.duration() > 0 ? (int) Math.round(info.duration()) : null;
+            tracks.add(info.artist() != null && !info.artist().isBlank()
+                    ? new TrackMetadata(number, info.artist().trim(), info.title().trim(), duration)
+                    : splitArtistFromTitle(number, info.title().trim(), duration));
+            position++;
+        }
+
+        String type = "album".equals(tralbum.itemType()) || tracks.size() > 1 ? "Album" : "Track";
+
+        return new BandcampPage(
+                Objects.requireNonNullElse(tralbum.artist(), "Unknown Artist"),
+                Objects.requireNonNullElse(current.title(), "Unknown Title"),
+                year,
+                type,
+                tracks,
+                imageUrl,
+                tags
+        );
+    }
+
+    private TrackMetadata splitArtistFromTitle(int number, String title, Integer duration) {
+        // Try to parse per-track artist from title if format is "Artist - Title"
+        if (title.contains(" - ")) {
+            int dashIndex = title.indexOf(" - ");
+            String possibleArtist = title.substring(0, dashIndex).trim();
+            String possibleTitle = title.substring(dashIndex + 3).trim();
+
+            // Only split if the artist part looks reasonable
+            if (!possibleArtist.isEmpty() && possibleArtist.length() < 100 && !possibleTitle.isEmpty()) {
+                return new TrackMetadata(number, possibleArtist, possibleTitle, duration);
+            }
+        }
+        return new TrackMetadata(number, null, title, duration);
+    }
+
+    private String extractArtistFromPage(Document doc) {
+        // Try meta tag first
+        Element metaArtist = doc.selectFirst("meta[property=og:site_name]");
+        if (metaArtist != null) {
+            String artist = metaArtist.attr("content");
+            if (!artist.isEmpty()) {
+                return artist;
+            }
+        }
+
+        // Try span with itemprop
+        Element artistSpan = doc.selectFirst("span[itemprop=byArtist]");
+        if (artistSpan != null) {
+            return artistSpan.text().trim();
+        }
+
+        // Try band name link
+        Element bandLink = doc.selectFirst("p#band-name-location span.title");
+        if (bandLink != null) {
+            return bandLink.text().trim();
+        }
+
+        return "Unknown Artist";
+    }
+
+    private String extractTitleFromPage(Document doc) {
+        // Try h2.trackTitle first for a clean title
+        Element titleElement = doc.selectFirst("h2.trackTitle");
+        if (titleElement != null && !titleElement.text().trim().isEmpty()) {
+            return titleElement.text().trim();
+        }
+
+        // Fallback to meta tag and clean it
+        Element metaTitle = doc.selectFirst("meta[property=og:title]");
+        if (metaTitle != null) {
+            String title = metaTitle.attr("content");
+            if (!title.isEmpty()) {
+                // handle "Title, by Artist"
+                return title.split(", by ")[0];
+            }
+        }
+
+        return "Unknown Title";
+    }
+
+    private String extractYearFromPage(Document doc) {
+        // Try meta datePublished
+        Element metaDate = doc.selectFirst("meta[itemprop=datePublished]");
+        if (metaDate != null) {
+            String datePublished = metaDate.attr("content"); // Format: "20231031"
+            if (datePublished != null && datePublished.length() >= 4) {
+                String year = datePublished.substring(0, 4);
+                if (year.matches("\\d{4}")) {
+                    log.debug("Extracted year {} from meta[itemprop=datePublished]", year);
+                    return year;
+                }
+            }
+        }
+
+        // Fallback to .tralbum-credits div
+        Element creditsElement = doc.selectFirst("div.tralbum-credits");
+        if (creditsElement != null) {
+            String text = creditsElement.text();
+            // Look for a 4-digit number, probably the year
+            Matcher matcher = YEAR_PATTERN.matcher(text);
+            if (matcher.find()) {
+                String year = matcher.group(1);
+                log.debug("Extracted year {} from div.tralbum-credits", year);
+                return year;
+            }
+        }
+
+        log.warn("Could not extract year from Bandcamp page");
+        return "";
+    }
+
+    private String extractImageFromPage(Document doc) {
+        // Try meta og:image
+        Element metaImage = doc.selectFirst("meta[property=og:image]");
+        if (metaImage != null) {
+            String imageUrl = metaImage.attr("content");
+            if (!imageUrl.isEmpty()) {
+                return imageUrl;
+            }
+        }
+
+        // Try #tralbumArt img
+        Element artImg = doc.selectFirst("#tralbumArt img");
+        if (artImg != null) {
+            return artImg.attr("src");
+        }
+
+        return "";
+    }
+
+    private List<String> extractTagsFromPage(Document doc) {
+        List<String> tags = new ArrayList<>();
+
+        // Tags are in .tralbumData script or in tags section
+        var tagLinks = doc.select("a.tag");
+        for (Element tagLink : tagLinks) {
+            String tag = tagLink.text().trim().toLowerCase();
+            if (!tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+
+        return tags;
+    }
+
+    private String extractTypeFromPage(Document doc) {
+        // Check if it's an album or track
+        Element trackList = doc.selectFirst("table.track_list");
+        if (trackList != null) {
+            var trackRows = trackList.select("tr.track_row_view");
+            if (trackRows.size() > 1) {
+                return "Album";
+            }
+        }
+        return "Track";
+    }
+
+    private List<TrackMetadata> extractTracksFromPage(Document doc) {
+        var trackRows = doc.select("table.track_list tr.track_row_view");
+        log.info("Found {} track rows in Bandcamp page", trackRows.size());
+
+        List<TrackMetadata> tracks = new ArrayList<>();
+        int trackNumber = 1;
+
+        for (Element row : trackRows) {
+            // Try more specific selector first
+            Element titleElement = row.selectFirst("td.title-col div.title span.track-title");
+            if (titleElement == null) {
+                // Fallback to simpler selector
+                titleElement = row.selectFirst("span.track-title");
+                log.debug("Using fallback selector for track {}", trackNumber);
+            }
+            if (titleElement != null) {
+                String title = titleElement.text().trim();
+                log.info("Extracted track {} title: '{}'", trackNumber, title);
+                if (!title.isEmpty()) {
+                    tracks.add(splitArtistFromTitle(trackNumber, title, null));
+                    trackNumber++;
+                }
+            }
+        }
+
+        return tracks;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sashkomusic.mainagent.infrastracture.client.bandcamp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The data-tralbum JSON Bandcamp embeds in every album/track page.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BandcampTralbum(
+        String artist,
+        @JsonProperty("item_type") String itemType,
+        @JsonProperty("album_release_date") String albumReleaseDate,
+        @JsonProperty("art_id") Long artId,
+        Current current,
+        List<TrackInfo> trackinfo
+) {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Current(
+            String title,
+            String type,
+            @JsonProperty("release_date") String releaseDate,
+            @JsonProperty("publish_date") String publishDate
+    ) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TrackInfo(
+            String title,
+            String artist,
+            @JsonProperty("track_num") Integer trackNum,
+            Double duration
+    ) {
+    }
+}
@@ -0,0 +1,313 @@
+package com.sashkomusic.mainagent.infrastracture.client.coverart;
+
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of release covers (Cover Art Archive, Discogs, Bandcamp), stored as resized JPEGs.
+ * <p>
+ * Covers are prefetched when search results arrive, so cards can be uploaded from disk (or by the
+ * Telegram file_id of an earlier upload) instead of making Telegram fetch remote URLs. URLs that
+ * fail are remembered for a while so the card goes straight to text instead of a failed round trip.
+ * Covers in formats ImageIO can't decode (e.g. WebP) aren't cached; cards keep using their remote URL.
+ * Eviction is least-recently-used by total size. If the cache directory isn't usable, covers are
+ * simply not cached and cards fall back to the remote URLs.
+ */
+@Slf4j
+@Component
+public class CoverArtCache {
+
+    private static final int MAX_CONCURRENT_FETCHES = 4;
+
+    private final RestClient client;
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxDimension;
+    private final Duration failureTtl;
+
+    private final ExecutorService fetchExecutor;
+    private final Semaphore fetchPermits = new Semaphore(MAX_CONCURRENT_FETCHES);
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Instant> failures = new ConcurrentHashMap<>();
+    private final Map<String, Instant> undecodable = new ConcurrentHashMap<>();
+    private final Map<String, String> telegramFileIds = new ConcurrentHashMap<>();
+    // Access-ordered: iteration starts at the least recently used cover
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private volatile boolean enabled = true;
+
+    public CoverArtCache(RestClient.Builder builder, HttpClientFactory httpClients,
+                         @Value("${cover-art.cache.directory}") String directory,
+                         @Value("${cover-art.cache.max-size:256MB}") DataSize maxSize,
+                         @Value("${cover-art.cache.max-dimension:600}") int maxDimension,
+                         @Value("${cover-art.cache.failure-ttl:PT1H}") Duration failureTtl) {
+        this.fetchExecutor = httpClients.executor();
+        this.client = builder
+                .requestFactory(httpClients.requestFactory("cover-art"))
+                .defaultHeader("User-Agent", "SashkoMusicBot/1.0")
+                .build();
+        this.directory = Path.of(directory);
+        this.maxBytes = maxSize.toBytes();
+        this.maxDimension = maxDimension;
+        this.failureTtl = failureTtl;
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            Files.createDirectories(directory);
+            index();
+        } catch (IOException e) {
+            log.error("Cover art cache directory {} is unavailable, covers won't be cached: {}", directory, e.toString());
+            enabled = false;
+        }
+    }
+
+    private void index() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            var cached = files.filter(f -> f.getFileName().toString().endsWith(".jpg"))
+                    .sorted(Comparator.comparing(this::lastModified))
+                    .toList();
+            synchronized (entries) {
+                for (Path file : cached) {
+                    long size = Files.size(file);
+                    entries.put(file.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+            }
+        }
+        evict();
+        log.info("Cover art cache holds {} covers ({} KB) in {}", entries.size(), totalBytes / 1024, directory);
+    }
+
+    /**
+     * Starts downloading covers that aren't cached yet; returns immediately.
+     */
+    public void prefetch(Collection<String> urls) {
+        if (!enabled) {
+            return;
+        }
+        urls.stream()
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .distinct()
+                .forEach(this::fetchAsync);
+    }
+
+    /**
+     * Cover file if it is already on disk. Never waits: a cover that isn't cached yet starts downloading
+     * for the next card and the caller gets empty right away.
+     */
+    public Optional<Path> cached(String url) {
+        if (!enabled || url == null || url.isBlank()) {
+            return Optional.empty();
+        }
+        var fetch = fetchAsync(url);
+        return fetch.isDone() ? fetch.join() : Optional.empty();
+    }
+
+    /**
+     * True when the URL failed recently; callers can skip sending it as a photo.
+     */
+    public boolean isKnownBroken(String url) {
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        Instant until = failures.get(key(url));
+        return until != null && until.isAfter(Instant.now());
+    }
+
+    public Optional<String> telegramFileId(String url) {
+        if (url == null || url.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(telegramFileIds.get(key(url)));
+    }
+
+    public void rememberTelegramFileId(String url, String fileId) {
+        if (url != null && fileId != null) {
+            telegramFileIds.put(key(url), fileId);
+        }
+    }
+
+    private CompletableFuture<Optional<Path>> fetchAsync(String url) {
+        String key = key(url);
+        Path file = directory.resolve(key);
+
+        if (touch(key)) {
+            return CompletableFuture.completedFuture(Optional.of(file));
+        }
+        Instant skipUntil = undecodable.get(key);
+        if (isKnownBroken(url) || (skipUntil != null && skipUntil.isAfter(Instant.now()))) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        var started = new CompletableFuture<Optional<Path>>();
+        var running = inFlight.putIfAbsent(key, started);
+        if (running != null) {
+            return running;
+        }
+        fetchExecutor.execute(() -> {
+            Optional<Path> result = download(url, file);
+            inFlight.remove(key, started);
+            started.complete(result);
+        });
+        return started;
+    }
+
+    private Optional<Path> download(String url, Path file) {
+        String key = file.getFileName().toString();
+        fetchPermits.acquireUninterruptibly();
+        try {
+            byte[] original = client.get()
+                    .uri(URI.create(url))
+                    .retrieve()
+                    .body(byte[].class);
+            if (original == null || original.length == 0) {
+                throw new IOException("empty response");
+            }
+
+            byte[] jpeg = resize(original);
+            if (jpeg == null) {
+                log.debug("Cover format can't be decoded, not caching it: {}", url);
+                undecodable.put(key, Instant.now().plus(failureTtl));
+                return Optional.empty();
+            }
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, jpeg);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (entries) {
+                Long previous = entries.put(key, (long) jpeg.length);
+                totalBytes += jpeg.length - (previous != null ? previous : 0);
+            }
+            evict();
+            failures.remove(key);
+            log.debug("Cached cover {} ({} KB -> {} KB)", url, original.length / 1024, jpeg.length / 1024);
+            return Optional.of(file);
+
+        } catch (Exception e) {
+            log.info("Cover unavailable, skipping for {}: {} ({})", failureTtl, url, e.getMessage());
+            failures.put(key, Instant.now().plus(failureTtl));
+            return Optional.empty();
+        } finally {
+            fetchPermits.release();
+        }
+    }
+
+    /**
+     * Scales the cover down to the max dimension and re-encodes it as JPEG.
+     * Null for formats ImageIO can't decode (e.g. WebP).
+     */
+    private byte[] resize(byte[] original) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+        if (source == null) {
+            return null;
+        }
+
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // Always redraw into RGB: JPEG has no alpha channel and PNG/GIF covers may have one
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var out = new ByteArrayOutputStream(64 * 1024);
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(0.85f);
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(target, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private boolean touch(String key) {
+        synchronized (entries) {
+            // get() moves the entry to the most recently used end
+            return entries.get(key) != null;
+        }
+    }
+
+    private void evict() {
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            var iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                var eldest = iterator.next();
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(directory.resolve(key));
+            } catch (IOException e) {
+                log.warn("Could not delete evicted cover {}: {}", key, e.getMessage());
+            }
+        }
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} covers from cache", evicted.size());
+        }
+    }
+
+    private Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static String key(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + ".jpg";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -6,15 +6,19 @@ import com.sashkomusic.mainagent.domain.model.ReleaseMetadataFile;
 import com.sashkomusic.mainagent.domain.model.SearchEngine;
 import com.sashkomusic.mainagent.domain.model.TrackMetadata;
 import com.sashkomusic.mainagent.domain.service.search.SearchEngineService;
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriBuilder;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,12 +27,22 @@ public class DiscogsClient implements SearchEngineService {
 
     private final RestClient client;
     private final String apiToken;
+    private final DiscogsSearchResultParser resultParser;
+    private final ExecutorService variantExecutor;
+    private final DiscogsRateLimitInterceptor rateLimitInterceptor;
 
-    public DiscogsClient(RestClient.Builder builder, @Value("${discogs.api.token:}") String apiToken) {
+    public DiscogsClient(RestClient.Builder builder, @Value("${discogs.api.token:}") String apiToken,
+                         DiscogsSearchResultParser resultParser, DiscogsRateLimitInterceptor rateLimitInterceptor,
+                         HttpClientFactory httpClients) {
         this.apiToken = apiToken;
+        this.resultParser = resultParser;
+        this.variantExecutor = httpClients.executor();
+        this.rateLimitInterceptor = rateLimitInterceptor;
         this.client = builder
                 .baseUrl("https://api.discogs.com")
+                .requestFactory(httpClients.requestFactory("discogs"))
                 .defaultHeader("User-Agent", "SashkoMusicBot/1.0")
+                .requestInterceptor(rateLimitInterceptor)
                 .build();
     }
 
@@ -39,55 +53,56 @@ public class DiscogsClient implements SearchEngineService {
                 request.dateRange() != null ? request.dateRange().toDiscogsParam() : "",
                 request.format());
 
-        List<ReleaseMetadata> results = performSearch(request);
+        if (request.artist().isEmpty()) {
+            return performSearch(request);
+        }
 
-        if (results.isEmpty() && !request.artist().isEmpty()) {
-            results = retryWithoutArtist(request);
+        // The artist-less variant only runs alongside when the quota has room; otherwise it waits for an empty result
+        if (!rateLimitInterceptor.hasHeadroom()) {
+            List<ReleaseMetadata> results = performSearch(request);
+            if (!results.isEmpty()) {
+                return results;
+            }
+            log.info("No results found with artist='{}'. Retrying without artist.", request.artist());
+            return performSearch(request.withAuthor(""));
         }
 
-        return results;
-    }
+        var withArtist = CompletableFuture.supplyAsync(() -> performSearch(request), variantExecutor);
+        var withoutArtist = CompletableFuture.supplyAsync(() -> performSearch(request.withAuthor("")), variantExecutor);
 
-    private List<ReleaseMetadata> retryWithoutArtist(MetadataSearchRequest request) {
-        List<ReleaseMetadata> results;
-        log.info("No results found with artist='{}'. Retrying without artist.", request.artist());
-        MetadataSearchRequest requestWithoutArtist = new MetadataSearchRequest(
-                request.id(),
-                "",
-                request.release(),
-                request.recording(),
-                request.dateRange(),
-                request.format(),
-                request.type(),
-                request.country(),
-                request.status(),
-                request.style(),
-                request.label(),
-                request.catno()
-        );
-        results = performSearch(requestWithoutArtist);
-        return results;
+        List<ReleaseMetadata> results = withArtist.join();
+        if (!results.isEmpty()) {
+            return results;
+        }
+
+        log.info("No results found with artist='{}'. Using results without artist.", request.artist());
+        return withoutArtist.join();
     }
 
     @CircuitBreaker(name = "discogsClient", fallbackMethod = "performSearchFallback")
     @Retry(name = "discogsClient")
     private List<ReleaseMetadata> performSearch(MetadataSearchRequest request) {
         try {
-            var response = client.get()
+            var grouped = client.get()
                     .uri(uriBuilder -> {
                         addDiscogsParameters(uriBuilder, request);
                         var uri = uriBuilder.build();
                         log.info("Discogs request URL: {}", uri);
                         return uri;
                     })
-                    .retrieve()
-                    .body(DiscogsSearchResponse.class);
+                    .exchange((req, res) -> {
+                        if (res.getStatusCode().isError()) {
+                            throw new RestClientException("Discogs search failed with status " + res.getStatusCode());
+                        }
+                        // Stream the body: masters and unused fields never get materialized
+                        return resultParser.parseGrouped(res.getBody(), this::groupKey);
+                    });
 
-            if (response == null || response.results() == null || response.results().isEmpty()) {
+            if (grouped == null || grouped.isEmpty()) {
                 return List.of();
             }
 
-            return mapToDomain(response.results());
+            return mapToDomain(grouped);
 
         } catch (Exception ex) {
             log.error("Error searching Discogs: {}", ex.getMessage());
@@ -152,22 +167,13 @@ public class DiscogsClient implements SearchEngineService {
         }
     }
 
-    private List<ReleaseMetadata> mapToDomain(List<DiscogsSearchResponse.Result> results) {
-        log.debug("Mapping {} Discogs results to domain", results.size());
-
-        List<DiscogsSearchResponse.Result> releases = results.stream()
-                .filter(r -> "release".equals(r.type()))
-                .toList();
-
-        log.debug("After filtering for 'release' type, {} releases remain", releases.size());
-
-        Map<String, List<DiscogsSearchResponse.Result>> grouped = releases.stream()
-                .collect(Collectors.groupingBy(r -> {
-                    String title = extractTitle(r.title()).toLowerCase().trim();
-                    return title.replaceAll("[\\p{C}\\p{Z}&&[^ ]]", "");
-                }));
+    private String groupKey(String fullTitle) {
+        String title = extractTitle(fullTitle).toLowerCase().trim();
+        return title.replaceAll("[\\p{C}\\p{Z}&&[^ ]]", "");
+    }
 
-        log.debug("Grouped into {} unique titles", grouped.size());
+    private List<ReleaseMetadata> mapToDomain(Map<String, List<DiscogsSearchResponse.Result>> grouped) {
+        log.debug("Mapping {} Discogs release groups to domain", grouped.size());
 
         return grouped.values().stream()
                 .map(this::aggregateGroup)
@@ -298,17 +304,7 @@ public class DiscogsClient implements SearchEngineService {
         String id = parts[2];   // actual ID
 
         try {
-            DiscogsReleaseResponse response;
-            response = client.get()
-                    .uri(uriBuilder -> {
-                        uriBuilder.path("/releases/" + id);
-                        if (!apiToken.isEmpty()) {
-                            uriBuilder.queryParam("token", apiToken);
-                        }
-                        return uriBuilder.build();
-                    })
-                    .retrieve()
-                    .body(DiscogsReleaseResponse.class);
+            DiscogsReleaseResponse response = fetchRelease(id);
 
             if (response == null) {
                 log.warn("Release not found: {}", releaseId);
@@ -320,7 +316,7 @@ public class DiscogsClient implements SearchEngineService {
                     : "Unknown";
             String title = response.title() != null ? clean(response.title()) : "Unknown";
 
-            List<TrackMetadata> tracks = getTracks(releaseId);
+            List<TrackMetadata> tracks = mapTracks(response);
 
             List<String> years = response.year() != null
                     ? List.of(String.valueOf(response.year()))
@@ -417,7 +413,12 @@ public class DiscogsClient implements SearchEngineService {
         String id = parts[2];   // actual ID
 
         try {
-            return getTracksFromRelease(id);
+            var response = fetchRelease(id);
+            if (response == null) {
+                log.warn("Release not found: {}", releaseId);
+                return List.of();
+            }
+            return mapTracks(response);
         } catch (Exception ex) {
             log.error("Error fetching tracklist from Discogs: {}", ex.getMessage());
             throw ex;
@@ -430,12 +431,12 @@ public class DiscogsClient implements SearchEngineService {
         return List.of();
     }
 
-    private List<TrackMetadata> getTracksFromRelease(String releaseId) {
-        log.info("Fetching tracklist for release {}", releaseId);
+    private DiscogsReleaseResponse fetchRelease(String id) {
+        log.info("Fetching release details for {}", id);
 
-        var response = client.get()
+        return client.get()
                 .uri(uriBuilder -> {
-                    uriBuilder.path("/releases/" + releaseId);
+                    uriBuilder.path("/releases/" + id);
                     if (!apiToken.isEmpty()) {
                         uriBuilder.queryParam("token", apiToken);
                     }
@@ -443,9 +444,11 @@ public class DiscogsClient implements SearchEngineService {
                 })
                 .retrieve()
                 .body(DiscogsReleaseResponse.class);
+    }
 
-        if (response == null || response.tracklist() == null) {
-            log.warn("No tracklist found for release {}", releaseId);
+    private List<TrackMetadata> mapTracks(DiscogsReleaseResponse response) {
+        if (response.tracklist() == null) {
+            log.warn("No tracklist found for release {}", response.id());
             return List.of();
         }
 
@@ -492,7 +495,7 @@ public class DiscogsClient implements SearchEngineService {
             }
             // Priority 3: Fall back to album artist (already set as default)
 
-            tracks.add(new TrackMetadata(trackNumber, trackArtist, trackTitle));
+            tracks.add(new TrackMetadata(trackNumber, trackArtist, trackTitle, parseDuration(track.duration())));
             trackNumber++;
         }
 
@@ -501,7 +504,7 @@ public class DiscogsClient implements SearchEngineService {
         int finalTrackNumber = 1;
         for (TrackMetadata track : tracks) {
             if (!isHeading(track.title())) {
-                finalTracks.add(new TrackMetadata(finalTrackNumber, track.artist(), track.title()));
+                finalTracks.add(new TrackMetadata(finalTrackNumber, track.artist(), track.title(), track.durationSeconds()));
                 finalTrackNumber++;
             }
         }
@@ -514,6 +517,21 @@ public class DiscogsClient implements SearchEngineService {
         return lowerTitle.startsWith("disc ") || lowerTitle.startsWith("side ");
     }
 
+    // Discogs durations are "m:ss" or "h:mm:ss", often empty
+    private static Integer parseDuration(String duration) {
+        if (duration == null || duration.isBlank()) {
+            return null;
+        }
+        int seconds = 0;
+        for (String part : duration.trim().split(":")) {
+            if (!part.matches("\\d{1,3}")) {
+                return null;
+            }
+            seconds = seconds * 60 + Integer.parseInt(part);
+        }
+        return seconds > 0 ? seconds : null;
+    }
+
     private String extractArtistName(DiscogsReleaseResponse response) {
         if (response.artists() != null && !response.artists().isEmpty()) {
             return cleanArtistName(response.artists().getFirst().name());
@@ -0,0 +1,228 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the monthly Discogs releases/labels XML dumps (plain or .gz) with StAX into a {@link DiscogsDumpIndex}.
+ * Only id, artist, title, first label/catno, year, formats and master id are kept per release.
+ */
+@Slf4j
+@Component
+public class DiscogsDumpImporter {
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public DiscogsDumpImporter() {
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    public long importDump(Path releasesDump, Path labelsDump, Path targetDirectory) throws IOException {
+        long started = System.currentTimeMillis();
+
+        try (var writer = new DiscogsDumpIndex.Writer(targetDirectory)) {
+            if (labelsDump != null) {
+                writer.writeSublabels(readSublabels(labelsDump));
+            }
+
+            try (InputStream in = open(releasesDump)) {
+                XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in, "UTF-8");
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "release".equals(reader.getLocalName())) {
+                        var record = readRelease(reader);
+                        if (record != null) {
+                            writer.write(record);
+                            if (writer.count() % 500_000 == 0) {
+                                log.info("Discogs dump import: {} releases indexed", writer.count());
+                            }
+                        }
+                    }
+                }
+                reader.close();
+            } catch (XMLStreamException e) {
+                throw new IOException("Malformed Discogs releases dump " + releasesDump + ": " + e.getMessage(), e);
+            }
+
+            log.info("Imported {} Discogs releases from {} in {} s",
+                    writer.count(), releasesDump.getFileName(), (System.currentTimeMillis() - started) / 1000);
+            return writer.count();
+        }
+    }
+
+    private DiscogsDumpRecord readRelease(XMLStreamReader reader) throws XMLStreamException {
+        long id = parseLong(reader.getAttributeValue(null, "id"));
+        StringBuilder artist = new StringBuilder();
+        String title = null;
+        String label = null;
+        String catno = null;
+        String year = "";
+        long masterId = 0;
+        Set<String> formats = new LinkedHashSet<>();
+
+        String section = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth == 1) {
+                    section = null;
+                }
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if (depth == 1) {
+                switch (name) {
+                    case "title" -> title = reader.getElementText();
+                    case "released" -> {
+                        String released = reader.getElementText();
+                        year = released.length() >= 4 ? released.substring(0, 4) : "";
+                    }
+                    case "master_id" -> masterId = parseLong(reader.getElementText());
+                    case "artists", "labels", "formats" -> {
+                        section = name;
+                        depth++;
+                    }
+                    // tracklist, videos, credits, companies etc. are never needed
+                    default -> skipElement(reader);
+                }
+            } else if (depth == 2 && "labels".equals(section) && "label".equals(name)) {
+                if (label == null) {
+                    label = reader.getAttributeValue(null, "name");
+                    catno = reader.getAttributeValue(null, "catno");
+                }
+                skipElement(reader);
+            } else if (depth == 2 && "formats".equals(section) && "format".equals(name)) {
+                String format = reader.getAttributeValue(null, "name");
+                if (format != null) {
+                    formats.add(format);
+                }
+                skipElement(reader);
+            } else if (depth == 2 && "artists".equals(section) && "artist".equals(name)) {
+                depth++;
+            } else if (depth == 3 && "name".equals(name)) {
+                artist.append(reader.getElementText().replaceAll("\\s*\\(\\d+\\)\\s*$", ""));
+            } else if (depth == 3 && "join".equals(name)) {
+                String join = reader.getElementText().trim();
+                if (!join.isEmpty()) {
+                    artist.append(join.equals(",") ? ", " : " " + join + " ");
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (id == 0 || title == null) {
+            return null;
+        }
+
+        return new DiscogsDumpRecord(
+                id,
+                artist.toString().trim(),
+                title,
+                label != null ? label.replaceAll("\\s*\\(\\d+\\)\\s*$", "") : "",
+                catno != null && !"none".equalsIgnoreCase(catno) ? catno : "",
+                year,
+                String.join(", ", formats),
+                masterId
+        );
+    }
+
+    private Map<String, List<String>> readSublabels(Path labelsDump) throws IOException {
+        Map<String, List<String>> sublabels = new HashMap<>();
+
+        try (InputStream in = open(labelsDump)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in, "UTF-8");
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "label".equals(reader.getLocalName())) {
+                    readLabel(reader, sublabels);
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed Discogs labels dump " + labelsDump + ": " + e.getMessage(), e);
+        }
+
+        log.info("Read sublabels for {} Discogs labels from {}", sublabels.size(), labelsDump.getFileName());
+        return sublabels;
+    }
+
+    private void readLabel(XMLStreamReader reader, Map<String, List<String>> sublabels) throws XMLStreamException {
+        String name = null;
+        List<String> children = new ArrayList<>();
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String element = reader.getLocalName();
+            if (depth == 1 && "name".equals(element)) {
+                name = reader.getElementText();
+            } else if (depth == 1 && "sublabels".equals(element)) {
+                depth++;
+            } else if (depth == 2 && "label".equals(element)) {
+                children.add(reader.getElementText());
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (name != null && !children.isEmpty()) {
+            sublabels.put(DiscogsDumpIndex.labelKey(name), children);
+        }
+    }
+
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 256 * 1024);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 256 * 1024) : in;
+    }
+
+    private long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
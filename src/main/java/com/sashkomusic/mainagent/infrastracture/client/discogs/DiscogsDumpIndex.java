@@ -0,0 +1,353 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk index over imported Discogs dump releases.
+ * <p>
+ * {@code releases.bin} holds the records back to back; catno and label keys are hashed into
+ * bucket files of (key, record offset) pairs. When the import finishes each bucket file is split into
+ * slots sized to its entry count (a few hundred entries each) with an offset table up front, so a lookup
+ * reads one small slot and seeks to the matching records without keeping the dump in memory.
+ * <p>
+ * Lookups hold a reference ({@link #acquire()} / {@link #release()}); a replaced index is only closed
+ * once the last lookup using it has finished.
+ */
+@Slf4j
+public class DiscogsDumpIndex implements Closeable {
+
+    static final String RECORDS_FILE = "releases.bin";
+    static final String SUBLABELS_FILE = "sublabels.tsv";
+    static final String FORMAT_FILE = "format";
+    private static final String FORMAT = "2";
+    private static final int BUCKETS = 128;
+    private static final int TARGET_SLOT_ENTRIES = 256;
+    private static final int MAX_UTF_BYTES = 60_000;
+
+    private final Path directory;
+    private final RandomAccessFile records;
+    private final Map<String, List<String>> sublabels;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile Runnable onClosed = () -> {
+    };
+
+    private DiscogsDumpIndex(Path directory, Map<String, List<String>> sublabels) throws IOException {
+        this.directory = directory;
+        this.records = new RandomAccessFile(directory.resolve(RECORDS_FILE).toFile(), "r");
+        this.sublabels = sublabels;
+    }
+
+    public static DiscogsDumpIndex open(Path directory) throws IOException {
+        Path formatFile = directory.resolve(FORMAT_FILE);
+        if (!Files.exists(formatFile) || !FORMAT.equals(Files.readString(formatFile, StandardCharsets.UTF_8).trim())) {
+            throw new IOException("Discogs index " + directory + " has an outdated format and needs a re-import");
+        }
+        Map<String, List<String>> sublabels = new HashMap<>();
+        Path sublabelsFile = directory.resolve(SUBLABELS_FILE);
+        if (Files.exists(sublabelsFile)) {
+            for (String line : Files.readAllLines(sublabelsFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if (parts.length > 1) {
+                    sublabels.put(parts[0], List.of(Arrays.copyOfRange(parts, 1, parts.length)));
+                }
+            }
+        }
+        return new DiscogsDumpIndex(directory, sublabels);
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public List<DiscogsDumpRecord> findByCatno(String catno, int limit) throws IOException {
+        return find("catno", catnoKey(catno), limit);
+    }
+
+    /**
+     * Releases on the label or any of its sublabels.
+     */
+    public List<DiscogsDumpRecord> findByLabel(String label, int limit) throws IOException {
+        String key = labelKey(label);
+        List<DiscogsDumpRecord> results = new ArrayList<>(find("label", key, limit));
+        for (String sublabel : sublabels.getOrDefault(key, List.of())) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.addAll(find("label", labelKey(sublabel), limit - results.size()));
+        }
+        return results;
+    }
+
+    private List<DiscogsDumpRecord> find(String kind, String key, int limit) throws IOException {
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> offsets = new ArrayList<>();
+        Path bucket = directory.resolve(bucketName(kind, key));
+        if (!Files.exists(bucket)) {
+            return List.of();
+        }
+
+        byte[] slot;
+        try (var file = new RandomAccessFile(bucket.toFile(), "r")) {
+            int slots = file.readInt();
+            file.seek(Integer.BYTES + (long) Long.BYTES * slot(key, slots));
+            long start = file.readLong();
+            long end = file.readLong();
+            slot = new byte[(int) (end - start)];
+            file.seek(Integer.BYTES + (long) Long.BYTES * (slots + 1) + start);
+            file.readFully(slot);
+        }
+
+        var in = new DataInputStream(new ByteArrayInputStream(slot));
+        while (in.available() > 0 && offsets.size() < limit) {
+            String entryKey = in.readUTF();
+            long offset = in.readLong();
+            if (entryKey.equals(key)) {
+                offsets.add(offset);
+            }
+        }
+
+        List<DiscogsDumpRecord> results = new ArrayList<>(offsets.size());
+        synchronized (records) {
+            for (long offset : offsets) {
+                records.seek(offset);
+                results.add(readRecord(records));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Takes a reference for a lookup; false once the index has been retired and closed.
+     */
+    public boolean acquire() {
+        while (true) {
+            int count = references.get();
+            if (count <= 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                records.close();
+            } catch (IOException e) {
+                log.warn("Could not close Discogs index {}: {}", directory, e.getMessage());
+            }
+            onClosed.run();
+        }
+    }
+
+    /**
+     * Drops the owner's reference; the index is closed and {@code onClosed} runs after the last lookup.
+     */
+    public void retire(Runnable onClosed) {
+        this.onClosed = onClosed;
+        release();
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    static String catnoKey(String catno) {
+        return normalize(catno).replace(" ", "");
+    }
+
+    static String labelKey(String label) {
+        if (label == null) {
+            return "";
+        }
+        // Discogs disambiguates duplicate names with " (2)" suffixes
+        return normalize(label.replaceAll("\\s*\\(\\d+\\)\\s*$", ""));
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static String bucketName(String kind, String key) {
+        return "%s-%03d.bin".formatted(kind, Math.floorMod(key.hashCode(), BUCKETS));
+    }
+
+    private static int slot(String key, int slots) {
+        return Math.floorMod(key.hashCode(), BUCKETS * slots) / BUCKETS;
+    }
+
+    private static DiscogsDumpRecord readRecord(DataInput in) throws IOException {
+        return new DiscogsDumpRecord(
+                in.readLong(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readLong()
+        );
+    }
+
+    /**
+     * Writes a fresh index directory; used by the importer.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path directory;
+        private final OutputStream records;
+        private final Map<String, DataOutputStream> buckets = new HashMap<>();
+        private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(512);
+        private final DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+        private long offset;
+        private long count;
+
+        Writer(Path directory) throws IOException {
+            this.directory = directory;
+            Files.createDirectories(directory);
+            this.records = new BufferedOutputStream(Files.newOutputStream(directory.resolve(RECORDS_FILE)), 256 * 1024);
+        }
+
+        void write(DiscogsDumpRecord record) throws IOException {
+            recordBuffer.reset();
+            recordOut.writeLong(record.id());
+            writeString(recordOut, record.artist());
+            writeString(recordOut, record.title());
+            writeString(recordOut, record.label());
+            writeString(recordOut, record.catno());
+            writeString(recordOut, record.year());
+            writeString(recordOut, record.format());
+            recordOut.writeLong(record.masterId());
+            recordOut.flush();
+
+            long recordOffset = offset;
+            recordBuffer.writeTo(records);
+            offset += recordBuffer.size();
+            count++;
+
+            addKey("catno", catnoKey(record.catno()), recordOffset);
+            addKey("label", labelKey(record.label()), recordOffset);
+        }
+
+        void writeSublabels(Map<String, List<String>> sublabels) throws IOException {
+            try (var out = Files.newBufferedWriter(directory.resolve(SUBLABELS_FILE), StandardCharsets.UTF_8)) {
+                for (var entry : sublabels.entrySet()) {
+                    out.write(entry.getKey() + "\t" + String.join("\t", entry.getValue()));
+                    out.newLine();
+                }
+            }
+        }
+
+        long count() {
+            return count;
+        }
+
+        private void addKey(String kind, String key, long recordOffset) throws IOException {
+            if (key.isEmpty()) {
+                return;
+            }
+            DataOutputStream bucket = buckets.get(bucketName(kind, key));
+            if (bucket == null) {
+                bucket = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(directory.resolve(bucketName(kind, key))), 16 * 1024));
+                buckets.put(bucketName(kind, key), bucket);
+            }
+            writeString(bucket, key);
+            bucket.writeLong(recordOffset);
+        }
+
+        private void writeString(DataOutputStream out, String value) throws IOException {
+            String safe = value != null ? value : "";
+            if (safe.length() > MAX_UTF_BYTES / 3) {
+                safe = safe.substring(0, MAX_UTF_BYTES / 3);
+            }
+            out.writeUTF(safe);
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+            for (var bucket : buckets.values()) {
+                bucket.close();
+            }
+            for (String name : buckets.keySet()) {
+                splitIntoSlots(directory.resolve(name));
+            }
+            Files.writeString(directory.resolve(FORMAT_FILE), FORMAT, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Rewrites a bucket file as: slot count, slot offset table (slot count + 1 longs), then the
+         * entries grouped by slot.
+         */
+        private void splitIntoSlots(Path bucket) throws IOException {
+            record Entry(String key, long offset) {
+            }
+            List<Entry> entries = new ArrayList<>();
+            try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(bucket), 64 * 1024))) {
+                while (true) {
+                    String key;
+                    try {
+                        key = in.readUTF();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    entries.add(new Entry(key, in.readLong()));
+                }
+            }
+
+            int slots = 1;
+            while ((long) slots * TARGET_SLOT_ENTRIES < entries.size()) {
+                slots <<= 1;
+            }
+            int slotCount = slots;
+            entries.sort(Comparator.comparingInt(e -> slot(e.key(), slotCount)));
+
+            var data = new ByteArrayOutputStream(entries.size() * 24);
+            var dataOut = new DataOutputStream(data);
+            long[] starts = new long[slots + 1];
+            int next = 0;
+            for (int s = 0; s < slots; s++) {
+                starts[s] = dataOut.size();
+                while (next < entries.size() && slot(entries.get(next).key(), slots) == s) {
+                    dataOut.writeUTF(entries.get(next).key());
+                    dataOut.writeLong(entries.get(next).offset());
+                    next++;
+                }
+            }
+            starts[slots] = dataOut.size();
+
+            Path temp = bucket.resolveSibling(bucket.getFileName() + ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(slots);
+                for (long start : starts) {
+                    out.writeLong(start);
+                }
+                data.writeTo(out);
+            }
+            Files.move(temp, bucket, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Watches the dump directory and keeps the current {@link DiscogsDumpIndex}.
+ * A newer releases dump is imported into a fresh index in the background and swapped in when complete.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "discogs.dump.enabled", havingValue = "true")
+public class DiscogsDumpIndexService {
+
+    private static final String SOURCE_MARKER = "source.txt";
+
+    private final DiscogsDumpImporter importer;
+    private final Path dumpDirectory;
+    private final Path indexRoot;
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    private volatile DiscogsDumpIndex current;
+
+    public DiscogsDumpIndexService(DiscogsDumpImporter importer,
+                                   @Value("${discogs.dump.directory}") String dumpDirectory) {
+        this.importer = importer;
+        this.dumpDirectory = Path.of(dumpDirectory);
+        this.indexRoot = this.dumpDirectory.resolve("index");
+    }
+
+    /**
+     * The current index with a reference held for the caller, who must {@link DiscogsDumpIndex#release()} it.
+     */
+    public Optional<DiscogsDumpIndex> acquire() {
+        while (true) {
+            DiscogsDumpIndex index = current;
+            if (index == null) {
+                return Optional.empty();
+            }
+            if (index.acquire()) {
+                return Optional.of(index);
+            }
+            // Swapped and retired in between; the next read sees the new index
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${discogs.dump.rescan-interval:PT1H}")
+    public void rescan() {
+        Optional<Path> releasesDump = newest("_releases.xml");
+        if (releasesDump.isEmpty()) {
+            return;
+        }
+
+        String source = describe(releasesDump.get());
+        if (current == null) {
+            openExisting(source);
+        }
+        if (current != null && source.equals(readMarker(current.directory()))) {
+            return;
+        }
+
+        if (!importing.compareAndSet(false, true)) {
+            return;
+        }
+        Path labelsDump = newest("_labels.xml").orElse(null);
+        Thread.ofPlatform().name("discogs-dump-import").daemon(true)
+                .start(() -> importInBackground(releasesDump.get(), labelsDump, source));
+    }
+
+    private void importInBackground(Path releasesDump, Path labelsDump, String source) {
+        Path target = indexRoot.resolve(String.valueOf(System.currentTimeMillis()));
+        try {
+            log.info("Importing Discogs dump {} into {}", releasesDump.getFileName(), target);
+            importer.importDump(releasesDump, labelsDump, target);
+            Files.writeString(target.resolve(SOURCE_MARKER), source, StandardCharsets.UTF_8);
+
+            DiscogsDumpIndex previous = current;
+            current = DiscogsDumpIndex.open(target);
+            log.info("Discogs dump index switched to {}", target);
+
+            if (previous != null) {
+                previous.retire(() -> deleteRecursively(previous.directory()));
+            }
+        } catch (IOException e) {
+            log.error("Discogs dump import failed for {}: {}", releasesDump, e.getMessage());
+            deleteRecursively(target);
+        } finally {
+            importing.set(false);
+        }
+    }
+
+    private void openExisting(String source) {
+        if (!Files.isDirectory(indexRoot)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(indexRoot)) {
+            // Reuse the newest complete index (even for an older dump) until the re-import finishes
+            var existing = dirs.filter(dir -> readMarker(dir) != null)
+                    .max(Comparator.comparing(Path::getFileName));
+            if (existing.isPresent()) {
+                current = DiscogsDumpIndex.open(existing.get());
+                log.info("Opened existing Discogs dump index {} (up to date: {})",
+                        existing.get(), source.equals(readMarker(existing.get())));
+            }
+        } catch (IOException e) {
+            log.warn("Could not open existing Discogs dump index: {}", e.getMessage());
+        }
+    }
+
+    private Optional<Path> newest(String suffix) {
+        if (!Files.isDirectory(dumpDirectory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            // Dumps are named discogs_YYYYMMDD_releases.xml.gz, so the name orders them by date
+            return files.filter(Files::isRegularFile)
+                    .filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.endsWith(suffix) || name.endsWith(suffix + ".gz");
+                    })
+                    .max(Comparator.comparing(f -> f.getFileName().toString()));
+        } catch (IOException e) {
+            log.warn("Could not list Discogs dump directory {}: {}", dumpDirectory, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String describe(Path dump) {
+        try {
+            return dump.getFileName() + ":" + Files.size(dump) + ":" + Files.getLastModifiedTime(dump).toMillis();
+        } catch (IOException e) {
+            return dump.getFileName().toString();
+        }
+    }
+
+    private String readMarker(Path indexDirectory) {
+        try {
+            return Files.readString(indexDirectory.resolve(SOURCE_MARKER), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> ordered = paths.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : ordered) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete old Discogs index {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (current != null) {
+            current.release();
+        }
+    }
+}
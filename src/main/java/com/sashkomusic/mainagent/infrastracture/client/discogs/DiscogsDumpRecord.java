@@ -0,0 +1,16 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+/**
+ * Compact release entry imported from the Discogs XML dump.
+ */
+public record DiscogsDumpRecord(
+        long id,
+        String artist,
+        String title,
+        String label,
+        String catno,
+        String year,
+        String format,
+        long masterId
+) {
+}
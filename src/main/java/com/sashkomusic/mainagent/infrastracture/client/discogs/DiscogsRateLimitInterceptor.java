@@ -0,0 +1,153 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket pacing Discogs requests. Capacity and refill rate follow X-Discogs-Ratelimit,
+ * and the bucket is pulled down to X-Discogs-Ratelimit-Remaining after every response,
+ * so bursts slow down before the moving-window quota runs out instead of hitting 429s.
+ */
+@Slf4j
+@Component
+public class DiscogsRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String HEADER_LIMIT = "X-Discogs-Ratelimit";
+    private static final String HEADER_USED = "X-Discogs-Ratelimit-Used";
+    private static final String HEADER_REMAINING = "X-Discogs-Ratelimit-Remaining";
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Timer waitTimer;
+
+    private volatile int limit;
+    private volatile int remaining;
+    private volatile long lastWaitMillis;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public DiscogsRateLimitInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${discogs.rate-limit.initial-limit:25}") int initialLimit) {
+        this.limit = initialLimit;
+        this.remaining = initialLimit;
+        this.tokens = initialLimit;
+
+        this.waitTimer = Timer.builder("discogs.throttle.wait")
+                .description("Time Discogs requests were held back by the adaptive throttle")
+                .register(meterRegistry);
+        Gauge.builder("discogs.ratelimit.remaining", this, i -> i.remaining)
+                .description("Requests left in the current Discogs rate-limit window")
+                .register(meterRegistry);
+        Gauge.builder("discogs.ratelimit.limit", this, i -> i.limit)
+                .description("Discogs requests allowed per minute")
+                .register(meterRegistry);
+        Gauge.builder("discogs.throttle.last-wait", this, i -> i.lastWaitMillis)
+                .description("Throttle delay applied to the latest Discogs request, in ms")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        long waitNanos = reserve();
+        lastWaitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+
+        if (waitNanos > 0) {
+            log.info("Throttling Discogs request for {} ms (remaining quota: {}/{})", lastWaitMillis, remaining, limit);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling Discogs request");
+            }
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        update(response);
+        return response;
+    }
+
+    /**
+     * True when the quota has room for an extra request right now without throttling anything,
+     * with at least half of the window still unused.
+     */
+    public synchronized boolean hasHeadroom() {
+        refill();
+        return tokens >= 2 && remaining > limit / 2;
+    }
+
+    /**
+     * Takes a token, letting the balance go negative; the deficit is the time to wait.
+     */
+    private synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens * nanosPerToken());
+    }
+
+    private synchronized void update(ClientHttpResponse response) {
+        var headers = response.getHeaders();
+        Integer reportedLimit = parse(headers.getFirst(HEADER_LIMIT));
+        Integer reportedRemaining = parse(headers.getFirst(HEADER_REMAINING));
+
+        if (reportedLimit != null && reportedLimit > 0 && reportedLimit != limit) {
+            log.info("Discogs rate limit is {} req/min (used: {})", reportedLimit, headers.getFirst(HEADER_USED));
+            limit = reportedLimit;
+        }
+
+        refill();
+        if (reportedRemaining != null) {
+            remaining = reportedRemaining;
+            // Never believe we have more headroom than the server reports
+            tokens = Math.min(tokens, reportedRemaining);
+        }
+
+        try {
+            if (response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                log.warn("Discogs returned 429, draining throttle bucket");
+                remaining = 0;
+                tokens = Math.min(tokens, 0);
+            }
+        } catch (IOException e) {
+            log.debug("Could not read Discogs response status: {}", e.getMessage());
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(limit, tokens + (now - lastRefill) / nanosPerToken());
+        lastRefill = now;
+    }
+
+    private double nanosPerToken() {
+        return (double) WINDOW_NANOS / limit;
+    }
+
+    private Integer parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Streams a Discogs /database/search response and groups release entries on the fly.
+ * Masters and fields the aggregation doesn't use are skipped without being materialized.
+ */
+@Component
+public class DiscogsSearchResultParser {
+
+    private final JsonFactory jsonFactory;
+
+    public DiscogsSearchResultParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public Map<String, List<DiscogsSearchResponse.Result>> parseGrouped(InputStream body,
+                                                                       Function<String, String> groupKey) throws IOException {
+        Map<String, List<DiscogsSearchResponse.Result>> grouped = new LinkedHashMap<>();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return grouped;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (!"results".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    var result = readRelease(parser);
+                    if (result != null) {
+                        grouped.computeIfAbsent(groupKey.apply(result.title()), k -> new ArrayList<>()).add(result);
+                    }
+                }
+            }
+        }
+
+        return grouped;
+    }
+
+    /**
+     * Reads one result object; returns null for anything other than a release.
+     */
+    private DiscogsSearchResponse.Result readRelease(JsonParser parser) throws IOException {
+        boolean release = false;
+        boolean skip = false;
+        Long id = null;
+        Long masterId = null;
+        String title = null;
+        String year = null;
+        String coverImage = null;
+        List<String> format = null;
+        List<String> label = null;
+        List<String> genre = null;
+        List<String> style = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            if (skip) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (field) {
+                case "type" -> {
+                    release = "release".equals(parser.getValueAsString());
+                    skip = !release;
+                }
+                case "id" -> id = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                case "master_id" -> masterId = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                case "title" -> title = parser.getValueAsString();
+                case "year" -> year = parser.getValueAsString();
+                case "cover_image" -> coverImage = parser.getValueAsString();
+                case "format" -> format = readStrings(parser);
+                case "label" -> label = readStrings(parser);
+                case "genre" -> genre = readStrings(parser);
+                case "style" -> style = readStrings(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (!release) {
+            return null;
+        }
+
+        return new DiscogsSearchResponse.Result(
+                id, "release", title, null, format, label, year, genre, style,
+                coverImage, null, null, masterId, null
+        );
+    }
+
+    private List<String> readStrings(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String text = parser.getValueAsString();
+            if (text != null) {
+                values.add(text);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+}
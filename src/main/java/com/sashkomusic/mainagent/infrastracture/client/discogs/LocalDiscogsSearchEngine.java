@@ -0,0 +1,173 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadataFile;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import com.sashkomusic.mainagent.domain.service.search.SearchEngineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * DISCOGS engine answering catno and label lookups from the imported dump index.
+ * Everything else, and lookups the dump can't answer, goes to the remote {@link DiscogsClient}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "discogs.dump.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LocalDiscogsSearchEngine implements SearchEngineService {
+
+    private static final int MAX_RESULTS = 200;
+
+    private final DiscogsDumpIndexService indexService;
+    private final DiscogsClient remote;
+
+    @Override
+    public List<ReleaseMetadata> searchReleases(MetadataSearchRequest request) {
+        boolean hasCatno = !request.catno().isEmpty();
+        boolean hasLabel = !request.label().isEmpty();
+        if (!hasCatno && !hasLabel) {
+            return remote.searchReleases(request);
+        }
+        var index = indexService.acquire();
+        if (index.isEmpty()) {
+            return remote.searchReleases(request);
+        }
+
+        try {
+            List<DiscogsDumpRecord> records = hasCatno
+                    ? index.get().findByCatno(request.catno(), MAX_RESULTS)
+                    : index.get().findByLabel(request.label(), MAX_RESULTS);
+
+            var matching = records.stream()
+                    .filter(r -> matches(request, r))
+                    .toList();
+
+            if (!matching.isEmpty()) {
+                log.info("Discogs dump index answered {} lookup with {} releases", hasCatno ? "catno" : "label", matching.size());
+                return mapToDomain(matching);
+            }
+        } catch (IOException e) {
+            log.warn("Discogs dump index lookup failed, using remote search: {}", e.getMessage());
+        } finally {
+            index.get().release();
+        }
+
+        return remote.searchReleases(request);
+    }
+
+    private boolean matches(MetadataSearchRequest request, DiscogsDumpRecord record) {
+        if (!request.artist().isEmpty() && !contains(record.artist(), request.artist())) {
+            return false;
+        }
+        if (!request.release().isEmpty() && !contains(record.title(), request.release())) {
+            return false;
+        }
+        if (!request.label().isEmpty() && !request.catno().isEmpty()
+                && !DiscogsDumpIndex.labelKey(record.label()).contains(DiscogsDumpIndex.labelKey(request.label()))) {
+            return false;
+        }
+        if (!request.format().isEmpty() && !contains(record.format(), request.format())) {
+            return false;
+        }
+        var range = request.dateRange();
+        if (range != null && !range.isEmpty()) {
+            if (!record.year().matches("\\d{4}")) {
+                return false;
+            }
+            int year = Integer.parseInt(record.year());
+            return (range.from() == null || year >= range.from()) && (range.to() == null || year <= range.to());
+        }
+        return true;
+    }
+
+    private boolean contains(String value, String query) {
+        return value.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT));
+    }
+
+    private List<ReleaseMetadata> mapToDomain(List<DiscogsDumpRecord> records) {
+        Map<String, List<DiscogsDumpRecord>> grouped = records.stream()
+                .collect(Collectors.groupingBy(
+                        r -> r.masterId() != 0 ? "master:" + r.masterId() : "release:" + r.id(),
+                        LinkedHashMap::new,
+                        Collectors.toList()));
+
+        return grouped.values().stream()
+                .map(this::aggregateGroup)
+                .sorted(Comparator.comparing((ReleaseMetadata m) -> m.years().stream()
+                        .max(String::compareTo)
+                        .orElse("0000")).reversed())
+                .toList();
+    }
+
+    private ReleaseMetadata aggregateGroup(List<DiscogsDumpRecord> group) {
+        var representative = group.getFirst();
+
+        List<String> years = group.stream()
+                .map(DiscogsDumpRecord::year)
+                .filter(y -> !y.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<String> types = group.stream()
+                .flatMap(r -> Arrays.stream(r.format().split(", ")))
+                .filter(f -> !f.isEmpty())
+                .distinct()
+                .toList();
+
+        return new ReleaseMetadata(
+                "discogs:release:" + representative.id(),
+                representative.masterId() != 0 ? String.valueOf(representative.masterId()) : null,
+                SearchEngine.DISCOGS,
+                representative.artist(),
+                representative.title(),
+                100,
+                years,
+                types,
+                0, // Track count not stored in the dump index
+                0,
+                group.size(),
+                List.of(),
+                null, // Dumps carry no image URLs
+                List.of(),
+                representative.label()
+        );
+    }
+
+    @Override
+    public List<TrackMetadata> getTracks(String releaseId) {
+        return remote.getTracks(releaseId);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public SearchEngine getSource() {
+        return SearchEngine.DISCOGS;
+    }
+
+    @Override
+    public String buildReleaseUrl(ReleaseMetadata release) {
+        return remote.buildReleaseUrl(release);
+    }
+
+    @Override
+    public ReleaseMetadata getReleaseMetadata(ReleaseMetadataFile metadataFile) {
+        return remote.getReleaseMetadata(metadataFile);
+    }
+}
@@ -0,0 +1,115 @@
+package com.sashkomusic.mainagent.infrastracture.client.http;
+
+import com.sashkomusic.mainagent.config.HttpClientConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToIntFunction;
+
+/**
+ * One pooled Apache HttpClient per integration, so a slow host can't take connections from the others.
+ * Timeouts, pool sizes and gzip come from {@code http.client.*}; pool usage is published as
+ * {@code http.client.pool.*} gauges tagged with the client name.
+ * Concurrent outbound calls (search fan-out, cover prefetch) run on {@link #executor()}; it is deliberately
+ * not a bean, so Spring Boot keeps its own {@code applicationTaskExecutor}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HttpClientFactory {
+
+    private final HttpClientConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ClientHttpRequestFactory requestFactory(String name) {
+        return new HttpComponentsClientHttpRequestFactory(clients.computeIfAbsent(name, this::create));
+    }
+
+    /**
+     * Virtual-thread executor shared by the HTTP integrations.
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    private CloseableHttpClient create(String name) {
+        HttpClientConfig.Settings settings = config.forClient(name);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.getMaxConnections())
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(settings.getConnectTimeout()))
+                        .setSocketTimeout(timeout(settings.getReadTimeout()))
+                        .build())
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(settings.getPoolTimeout()))
+                        .setResponseTimeout(timeout(settings.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(settings.getIdleTimeout().toMillis()));
+        if (!settings.getCompression()) {
+            builder.disableContentCompression();
+        }
+
+        registerPoolGauges(name, connectionManager);
+        log.info("HTTP client '{}': {} connections ({} per host), connect {}, read {}, gzip {}",
+                name, settings.getMaxConnections(), settings.getMaxConnectionsPerRoute(),
+                settings.getConnectTimeout(), settings.getReadTimeout(), settings.getCompression());
+        return builder.build();
+    }
+
+    private void registerPoolGauges(String name, PoolingHttpClientConnectionManager connectionManager) {
+        registerPoolGauge("http.client.pool.leased", "Connections in use", name, connectionManager, PoolStats::getLeased);
+        registerPoolGauge("http.client.pool.available", "Idle pooled connections", name, connectionManager, PoolStats::getAvailable);
+        registerPoolGauge("http.client.pool.pending", "Requests waiting for a connection", name, connectionManager, PoolStats::getPending);
+        registerPoolGauge("http.client.pool.max", "Pool size limit", name, connectionManager, PoolStats::getMax);
+    }
+
+    private void registerPoolGauge(String metric, String description, String name,
+                                   PoolingHttpClientConnectionManager connectionManager,
+                                   ToIntFunction<PoolStats> stat) {
+        Gauge.builder(metric, connectionManager, manager -> stat.applyAsInt(manager.getTotalStats()))
+                .description(description)
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    @PreDestroy
+    void close() {
+        executor.shutdownNow();
+        clients.values().forEach(client -> client.close(CloseMode.GRACEFUL));
+    }
+}
@@ -2,6 +2,7 @@ package com.sashkomusic.mainagent.infrastracture.client.icecast;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.sashkomusic.mainagent.config.IcecastConfig;
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import com.sashkomusic.mainagent.infrastracture.client.navidrome.NavidromeClient.CurrentTrackInfo;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -19,8 +20,10 @@ public class IcecastClient {
     private final RestClient restClient;
     private final IcecastConfig config;
 
-    public IcecastClient(RestClient.Builder restClientBuilder, IcecastConfig config) {
-        this.restClient = restClientBuilder.build();
+    public IcecastClient(RestClient.Builder restClientBuilder, IcecastConfig config, HttpClientFactory httpClients) {
+        this.restClient = restClientBuilder
+                .requestFactory(httpClients.requestFactory("icecast"))
+                .build();
         this.config = config;
     }
 
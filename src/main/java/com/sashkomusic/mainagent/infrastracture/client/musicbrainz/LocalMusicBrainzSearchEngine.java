@@ -0,0 +1,75 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadataFile;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import com.sashkomusic.mainagent.domain.service.search.SearchEngineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * MusicBrainz engine answering searches from the local dump index first and falling back to the remote API on misses.
+ * Ordered first so it takes the MUSICBRAINZ slot in the search engine map when enabled.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "musicbrainz.local-index.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LocalMusicBrainzSearchEngine implements SearchEngineService {
+
+    private final MusicBrainzLocalIndex index;
+    private final MusicBrainzClient remote;
+    private final MusicBrainzReleaseMapper releaseMapper;
+
+    @Override
+    public List<ReleaseMetadata> searchReleases(MetadataSearchRequest request) {
+        var releases = index.search(request);
+        if (releases.isEmpty()) {
+            log.info("Local MusicBrainz index miss, falling back to remote search");
+            return remote.searchReleases(request);
+        }
+
+        log.info("Local MusicBrainz index hit: {} releases", releases.size());
+        return releaseMapper.mapToGroupedDomain(releases);
+    }
+
+    @Override
+    public List<TrackMetadata> getTracks(String releaseId) {
+        return index.findById(releaseId)
+                .map(releaseMapper::mapTracks)
+                .filter(tracks -> !tracks.isEmpty())
+                .orElseGet(() -> remote.getTracks(releaseId));
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public SearchEngine getSource() {
+        return SearchEngine.MUSICBRAINZ;
+    }
+
+    @Override
+    public String buildReleaseUrl(ReleaseMetadata release) {
+        return remote.buildReleaseUrl(release);
+    }
+
+    /**
+     * Refreshes by id (reprocess, metadata updates) always go to the API: the dump may be weeks old.
+     */
+    @Override
+    public ReleaseMetadata getReleaseMetadata(ReleaseMetadataFile metadataFile) {
+        return remote.getReleaseMetadata(metadataFile);
+    }
+}
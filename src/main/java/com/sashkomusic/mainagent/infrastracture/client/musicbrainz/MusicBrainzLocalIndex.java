@@ -0,0 +1,435 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sashkomusic.mainagent.domain.model.DateRange;
+import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-memory inverted index over MusicBrainz release JSON dumps (one release object per line,
+ * optionally gzipped). Each dump file is indexed on its own, and only files that were added or modified
+ * are re-read; that happens on a background thread and the result is swapped in when complete, so
+ * searches keep using the previous index and scheduled jobs are never held up by a large dump.
+ * A release repeated in a later dump file (by name) replaces the earlier one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "musicbrainz.local-index.enabled", havingValue = "true")
+public class MusicBrainzLocalIndex {
+
+    private static final int MAX_RESULTS = 150;
+
+    private final ObjectReader releaseReader;
+    private final Path dumpDirectory;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Snapshot current = new Snapshot(new TreeMap<>());
+
+    public MusicBrainzLocalIndex(ObjectMapper objectMapper,
+                                 @Value("${musicbrainz.local-index.path}") String dumpDirectory) {
+        this.releaseReader = objectMapper.readerFor(MusicBrainzSearchResponse.Release.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.dumpDirectory = Path.of(dumpDirectory);
+    }
+
+    @Scheduled(fixedDelayString = "${musicbrainz.local-index.rescan-interval:PT10M}")
+    public void scheduleRefresh() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().name("musicbrainz-index-rebuild").daemon(true).start(() -> {
+            try {
+                refresh();
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * Re-indexes, on the calling thread, the dump files that changed since the last refresh.
+     */
+    public synchronized void refresh() {
+        if (!Files.isDirectory(dumpDirectory)) {
+            log.warn("MusicBrainz dump directory not found: {}", dumpDirectory);
+            return;
+        }
+
+        Map<Path, Long> dumpFiles = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            for (Path file : files.filter(this::isDumpFile).toList()) {
+                dumpFiles.put(file, Files.getLastModifiedTime(file).toMillis());
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan MusicBrainz dump directory {}: {}", dumpDirectory, e.getMessage());
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        Map<Path, Segment> previous = current.segments;
+        TreeMap<Path, Segment> segments = new TreeMap<>();
+        int reindexed = 0;
+        for (var dump : dumpFiles.entrySet()) {
+            Segment segment = previous.get(dump.getKey());
+            if (segment == null || segment.modified != dump.getValue()) {
+                segment = load(dump.getKey(), dump.getValue());
+                reindexed++;
+            }
+            segments.put(dump.getKey(), segment);
+        }
+        if (reindexed == 0 && segments.size() == previous.size()) {
+            return;
+        }
+
+        Snapshot next = new Snapshot(segments);
+        current = next;
+        log.info("MusicBrainz local index: re-indexed {} of {} dump files in {} ms (index size: {})",
+                reindexed, segments.size(), System.currentTimeMillis() - started, next.size);
+    }
+
+    public int size() {
+        return current.size;
+    }
+
+    public Optional<MusicBrainzSearchResponse.Release> findById(String releaseId) {
+        return Optional.ofNullable(current.find(releaseId));
+    }
+
+    public List<MusicBrainzSearchResponse.Release> search(MetadataSearchRequest request) {
+        boolean hasArtist = !request.artist().isEmpty();
+        boolean hasRelease = !request.release().isEmpty();
+        boolean hasRecording = !request.recording().isEmpty();
+        if (!hasArtist && !hasRelease && !hasRecording) {
+            // Filter-only searches (label, style, year) are left to the remote API
+            return List.of();
+        }
+
+        Snapshot snapshot = current;
+        Set<String> candidates = new HashSet<>();
+        for (Segment segment : snapshot.segments.values()) {
+            Set<String> ids = null;
+            if (hasArtist) {
+                ids = intersect(ids, segment.artistPostings, request.artist());
+            }
+            if (hasRelease) {
+                ids = intersect(ids, segment.titlePostings, cleanTitle(request.release()));
+            } else if (hasRecording) {
+                ids = intersect(ids, segment.recordingPostings, request.recording());
+            }
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+
+        record Scored(MusicBrainzSearchResponse.Release release, double relevance) {
+        }
+        return candidates.stream()
+                .map(snapshot::find)
+                .filter(Objects::nonNull)
+                .filter(release -> matches(request, release))
+                .map(release -> new Scored(release, relevance(request, release)))
+                .sorted(Comparator.comparingDouble(Scored::relevance).reversed()
+                        .thenComparing(scored -> scored.release().date(), Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(MAX_RESULTS)
+                .map(Scored::release)
+                .toList();
+    }
+
+    /**
+     * Higher for releases whose artist and title (or best matching track) are closest to the query.
+     */
+    private double relevance(MetadataSearchRequest request, MusicBrainzSearchResponse.Release release) {
+        double relevance = 0;
+        if (!request.artist().isEmpty()) {
+            relevance += closeness(request.artist(), creditedArtist(release));
+        }
+        if (!request.release().isEmpty()) {
+            relevance += closeness(cleanTitle(request.release()), release.title());
+        } else if (!request.recording().isEmpty() && release.media() != null) {
+            relevance += release.media().stream()
+                    .filter(media -> media.tracks() != null)
+                    .flatMap(media -> media.tracks().stream())
+                    .mapToDouble(track -> closeness(request.recording(),
+                            track.recording() != null ? track.recording().title() : track.title()))
+                    .max()
+                    .orElse(0);
+        }
+        return relevance;
+    }
+
+    /**
+     * Share of the text's tokens the query accounts for, plus one for an exact match: "Geogaddi" is
+     * closer to the query "geogaddi" than "Geogaddi Live Sessions".
+     */
+    private double closeness(String query, String text) {
+        Set<String> textTokens = tokens(text);
+        if (textTokens.isEmpty()) {
+            return 0;
+        }
+        Set<String> queryTokens = tokens(query);
+        long matched = textTokens.stream().filter(queryTokens::contains).count();
+        return (double) matched / textTokens.size() + (normalize(query).equals(normalize(text)) ? 1 : 0);
+    }
+
+    private Segment load(Path file, long modified) {
+        Segment segment = new Segment(modified);
+        int count = 0;
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    MusicBrainzSearchResponse.Release release = releaseReader.readValue(line);
+                    if (release.id() == null || release.title() == null) {
+                        continue;
+                    }
+                    remove(segment, release.id());
+                    add(segment, release);
+                    count++;
+                } catch (IOException e) {
+                    log.debug("Skipping malformed release line in {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read MusicBrainz dump {}: {}", file, e.getMessage());
+        }
+        log.info("Indexed {} MusicBrainz releases from {}", count, file.getFileName());
+        return segment;
+    }
+
+    private BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private boolean isDumpFile(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file)
+                && (name.endsWith(".json") || name.endsWith(".jsonl")
+                || name.endsWith(".json.gz") || name.endsWith(".jsonl.gz"));
+    }
+
+    private void add(Segment segment, MusicBrainzSearchResponse.Release release) {
+        segment.releases.put(release.id(), release);
+        tokens(artistText(release)).forEach(t -> post(segment.artistPostings, t, release.id()));
+        tokens(release.title()).forEach(t -> post(segment.titlePostings, t, release.id()));
+        tokens(recordingText(release)).forEach(t -> post(segment.recordingPostings, t, release.id()));
+    }
+
+    /**
+     * A release repeated later in the same dump file replaces the earlier line.
+     */
+    private void remove(Segment segment, String releaseId) {
+        var release = segment.releases.remove(releaseId);
+        if (release == null) {
+            return;
+        }
+        tokens(artistText(release)).forEach(t -> unpost(segment.artistPostings, t, releaseId));
+        tokens(release.title()).forEach(t -> unpost(segment.titlePostings, t, releaseId));
+        tokens(recordingText(release)).forEach(t -> unpost(segment.recordingPostings, t, releaseId));
+    }
+
+    private void post(Map<String, Set<String>> postings, String token, String releaseId) {
+        postings.computeIfAbsent(token, k -> new HashSet<>()).add(releaseId);
+    }
+
+    private void unpost(Map<String, Set<String>> postings, String token, String releaseId) {
+        postings.computeIfPresent(token, (k, ids) -> {
+            ids.remove(releaseId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private Set<String> intersect(Set<String> current, Map<String, Set<String>> postings, String text) {
+        Set<String> result = current;
+        for (String token : tokens(text)) {
+            Set<String> ids = postings.getOrDefault(token, Set.of());
+            if (result == null) {
+                result = new HashSet<>(ids);
+            } else {
+                result.retainAll(ids);
+            }
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(MetadataSearchRequest request, MusicBrainzSearchResponse.Release release) {
+        if (!request.artist().isEmpty() && !normalize(artistText(release)).contains(normalize(request.artist()))) {
+            return false;
+        }
+        if (!request.release().isEmpty()
+                && !normalize(release.title()).contains(normalize(cleanTitle(request.release())))) {
+            return false;
+        }
+        if (!matchesDate(request.dateRange(), release.date())) {
+            return false;
+        }
+        if (!request.format().isEmpty() && (release.media() == null || release.media().stream()
+                .noneMatch(m -> m.format() != null && normalize(m.format()).contains(normalize(request.format()))))) {
+            return false;
+        }
+        if (!request.country().isEmpty() && !request.country().equalsIgnoreCase(release.country())) {
+            return false;
+        }
+        if (!request.status().isEmpty() && !request.status().equalsIgnoreCase(release.status())) {
+            return false;
+        }
+        if (!request.style().isEmpty() && (release.tags() == null || release.tags().stream()
+                .noneMatch(t -> normalize(t.name()).equals(normalize(request.style()))))) {
+            return false;
+        }
+        if (!request.label().isEmpty() && (release.labelInfo() == null || release.labelInfo().stream()
+                .noneMatch(li -> li.label() != null && normalize(li.label().name()).contains(normalize(request.label()))))) {
+            return false;
+        }
+        return request.catno().isEmpty() || (release.labelInfo() != null && release.labelInfo().stream()
+                .anyMatch(li -> normalize(li.catalogNumber()).equals(normalize(request.catno()))));
+    }
+
+    private boolean matchesDate(DateRange range, String date) {
+        if (range == null || range.isEmpty()) {
+            return true;
+        }
+        if (date == null || date.length() < 4) {
+            return false;
+        }
+        try {
+            int year = Integer.parseInt(date.substring(0, 4));
+            return (range.from() == null || year >= range.from()) && (range.to() == null || year <= range.to());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String artistText(MusicBrainzSearchResponse.Release release) {
+        if (release.artistCredit() == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (var credit : release.artistCredit()) {
+            text.append(credit.name()).append(' ');
+            if (credit.artist() != null && credit.artist().name() != null) {
+                text.append(credit.artist().name()).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private String creditedArtist(MusicBrainzSearchResponse.Release release) {
+        if (release.artistCredit() == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (var credit : release.artistCredit()) {
+            text.append(credit.name()).append(credit.joinphrase() != null ? credit.joinphrase() : "");
+        }
+        return text.toString();
+    }
+
+    private String recordingText(MusicBrainzSearchResponse.Release release) {
+        if (release.media() == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (var media : release.media()) {
+            if (media.tracks() == null) {
+                continue;
+            }
+            for (var track : media.tracks()) {
+                text.append(track.recording() != null ? track.recording().title() : track.title()).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private String cleanTitle(String title) {
+        String cleaned = title.replaceAll("\\s*\\([^)]*\\)", "").trim();
+        return cleaned.isEmpty() ? title : cleaned;
+    }
+
+    private Set<String> tokens(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    private String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    /**
+     * The segments of one refresh, in dump file order; never modified after it is published.
+     */
+    private static final class Snapshot {
+        private final NavigableMap<Path, Segment> segments;
+        private final int size;
+
+        private Snapshot(NavigableMap<Path, Segment> segments) {
+            this.segments = segments;
+            this.size = segments.size() == 1
+                    ? segments.firstEntry().getValue().releases.size()
+                    : (int) segments.values().stream().flatMap(s -> s.releases.keySet().stream()).distinct().count();
+        }
+
+        private MusicBrainzSearchResponse.Release find(String releaseId) {
+            for (Segment segment : segments.descendingMap().values()) {
+                var release = segment.releases.get(releaseId);
+                if (release != null) {
+                    return release;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Index of one dump file, reused by later refreshes until the file's modification time changes.
+     */
+    private static final class Segment {
+        private final long modified;
+        private final Map<String, MusicBrainzSearchResponse.Release> releases = new HashMap<>();
+        private final Map<String, Set<String>> artistPostings = new HashMap<>();
+        private final Map<String, Set<String>> titlePostings = new HashMap<>();
+        private final Map<String, Set<String>> recordingPostings = new HashMap<>();
+
+        private Segment(long modified) {
+            this.modified = modified;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+/**
+ * Priority classes sharing the MusicBrainz 1 req/s budget, highest first.
+ */
+public enum MusicBrainzPriority {
+    /** Chat searches a user is actively waiting on. */
+    INTERACTIVE,
+    /** Tracklist fetches that feed an already running flow. */
+    PREFETCH,
+    /** Bulk metadata refreshes (e.g. /reprocess all). */
+    BACKGROUND
+}
@@ -0,0 +1,220 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Folds the release search fallbacks (cleaned title, no artist) into a single boosted Lucene query
+ * and re-scores the combined response locally, so one request replaces the sequential chain.
+ */
+@Slf4j
+@Component
+public class MusicBrainzQueryPlanner {
+
+    private static final int BOOST_ARTIST_FULL_TITLE = 4;
+    private static final int BOOST_ARTIST_CLEANED_TITLE = 3;
+    private static final int BOOST_FULL_TITLE = 2;
+    private static final int BOOST_CLEANED_TITLE = 1;
+
+    record Variant(String artist, String title, int boost) {
+    }
+
+    public String toReleaseQuery(MetadataSearchRequest request) {
+        List<Variant> variants = variants(request);
+        List<String> filters = filterConditions(request);
+
+        if (variants.size() <= 1) {
+            return toLuceneQuery(request);
+        }
+
+        String variantsClause = variants.stream()
+                .map(v -> "(" + matchClause(request, v) + ")^" + v.boost())
+                .collect(Collectors.joining(" OR ", "(", ")"));
+
+        List<String> conditions = new ArrayList<>();
+        conditions.add(variantsClause);
+        conditions.addAll(filters);
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * Plain query without variants, used by the recording endpoint and simple release searches.
+     */
+    public String toLuceneQuery(MetadataSearchRequest request) {
+        List<String> conditions = new ArrayList<>();
+
+        String match = matchClause(request, new Variant(request.artist(), request.release(), 1));
+        if (!match.isEmpty()) {
+            conditions.add(match);
+        }
+        conditions.addAll(filterConditions(request));
+
+        return conditions.isEmpty() ? "*" : String.join(" AND ", conditions);
+    }
+
+    /**
+     * Keeps only releases that match the strictest variant present in the response,
+     * mirroring the old chain where looser queries ran only when stricter ones came back empty.
+     */
+    public List<MusicBrainzSearchResponse.Release> keepBestMatches(MetadataSearchRequest request,
+                                                                   List<MusicBrainzSearchResponse.Release> releases) {
+        List<Variant> variants = variants(request);
+        if (variants.size() <= 1 || releases.isEmpty()) {
+            return releases;
+        }
+
+        Map<MusicBrainzSearchResponse.Release, Integer> tiers = new IdentityHashMap<>();
+        int bestTier = 0;
+        for (var release : releases) {
+            int tier = matchTier(request, variants, release);
+            tiers.put(release, tier);
+            bestTier = Math.max(bestTier, tier);
+        }
+
+        if (bestTier == 0) {
+            // Nothing matched locally (analyzer differences) - trust MusicBrainz ordering
+            return releases;
+        }
+
+        int keepTier = bestTier;
+        var best = releases.stream()
+                .filter(r -> tiers.get(r) == keepTier)
+                .toList();
+        log.info("Local re-scoring kept {} of {} releases (boost tier {})", best.size(), releases.size(), keepTier);
+        return best;
+    }
+
+    private List<Variant> variants(MetadataSearchRequest request) {
+        if (request.release().isEmpty()) {
+            return List.of();
+        }
+
+        String fullTitle = request.release();
+        String cleanedTitle = cleanTitle(fullTitle);
+        boolean hasCleaned = !cleanedTitle.isEmpty() && !cleanedTitle.equals(fullTitle);
+        boolean hasArtist = !request.artist().isEmpty();
+
+        List<Variant> variants = new ArrayList<>();
+        if (hasArtist) {
+            variants.add(new Variant(request.artist(), fullTitle, BOOST_ARTIST_FULL_TITLE));
+            if (hasCleaned) {
+                variants.add(new Variant(request.artist(), cleanedTitle, BOOST_ARTIST_CLEANED_TITLE));
+            }
+        }
+        variants.add(new Variant("", fullTitle, BOOST_FULL_TITLE));
+        if (hasCleaned) {
+            variants.add(new Variant("", cleanedTitle, BOOST_CLEANED_TITLE));
+        }
+        return variants;
+    }
+
+    private int matchTier(MetadataSearchRequest request, List<Variant> variants,
+                          MusicBrainzSearchResponse.Release release) {
+        String releaseArtist = normalize(artistName(release));
+        String releaseTitle = normalize(release.title());
+        // Release hits may come from the recording clause, which can't be verified from the release title
+        boolean titleViaRecording = !request.recording().isEmpty();
+
+        for (Variant variant : variants) {
+            boolean artistMatches = variant.artist().isEmpty() || releaseArtist.contains(normalize(variant.artist()));
+            boolean titleMatches = titleViaRecording || releaseTitle.contains(normalize(variant.title()));
+            if (artistMatches && titleMatches) {
+                return variant.boost();
+            }
+        }
+        return 0;
+    }
+
+    private String matchClause(MetadataSearchRequest request, Variant variant) {
+        List<String> parts = new ArrayList<>();
+
+        if (!variant.artist().isEmpty()) {
+            parts.add("artist:\"" + escapeLucene(variant.artist()) + "\"");
+        }
+
+        // Handle release and recording with OR logic when both are present
+        boolean hasRelease = !variant.title().isEmpty();
+        boolean hasRecording = !request.recording().isEmpty();
+
+        if (hasRelease && hasRecording) {
+            parts.add(String.format(
+                    "(release:\"%s\" OR recording:\"%s\")",
+                    escapeLucene(variant.title()),
+                    escapeLucene(request.recording())
+            ));
+        } else if (hasRelease) {
+            parts.add("release:\"" + escapeLucene(variant.title()) + "\"");
+        } else if (hasRecording) {
+            parts.add("recording:\"" + escapeLucene(request.recording()) + "\"");
+        }
+
+        return String.join(" AND ", parts);
+    }
+
+    private List<String> filterConditions(MetadataSearchRequest request) {
+        List<String> conditions = new ArrayList<>();
+
+        if (request.dateRange() != null && !request.dateRange().isEmpty()) {
+            conditions.add(request.dateRange().toMusicBrainzQuery());
+        }
+
+        if (!request.format().isEmpty()) {
+            conditions.add("format:\"" + escapeLucene(request.format()) + "\"");
+        }
+
+        if (!request.country().isEmpty()) {
+            conditions.add("country:" + request.country());
+        }
+
+        if (!request.status().isEmpty()) {
+            conditions.add("status:" + request.status());
+        }
+
+        if (!request.style().isEmpty()) {
+            conditions.add("tag:\"" + escapeLucene(request.style()) + "\"");
+        }
+
+        if (!request.label().isEmpty()) {
+            conditions.add("label:\"" + escapeLucene(request.label()) + "\"");
+        }
+
+        if (!request.catno().isEmpty()) {
+            conditions.add("catno:\"" + escapeLucene(request.catno()) + "\"");
+        }
+
+        return conditions;
+    }
+
+    private String cleanTitle(String title) {
+        return title.replaceAll("\\s*\\([^)]*\\)", "").trim();
+    }
+
+    private String artistName(MusicBrainzSearchResponse.Release release) {
+        if (release.artistCredit() == null) {
+            return "";
+        }
+        return release.artistCredit().stream()
+                .map(ac -> ac.name() + (ac.joinphrase() != null ? ac.joinphrase() : ""))
+                .collect(Collectors.joining());
+    }
+
+    private String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private String escapeLucene(String value) {
+        return value.replace("\"", "\\\"");
+    }
+}
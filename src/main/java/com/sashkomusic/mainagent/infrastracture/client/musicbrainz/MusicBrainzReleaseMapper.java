@@ -0,0 +1,251 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maps MusicBrainz release JSON (web service responses and data dumps share the format) to the domain.
+ */
+@Slf4j
+@Component
+public class MusicBrainzReleaseMapper {
+
+    public List<ReleaseMetadata> mapToGroupedDomain(List<MusicBrainzSearchResponse.Release> releases) {
+        Map<String, List<MusicBrainzSearchResponse.Release>> grouped = releases.stream()
+                .filter(r -> r.releaseGroup() != null)
+                .collect(Collectors.groupingBy(r -> r.releaseGroup().id()));
+
+        return grouped.values().stream()
+                .map(this::aggregateGroup)
+                .sorted(
+                        Comparator.comparing((ReleaseMetadata m) -> m.years().isEmpty() ? "0000" : m.years().getFirst()).reversed()
+                                .thenComparing(Comparator.comparingInt(ReleaseMetadata::score).reversed())
+                                .thenComparingInt(r -> r.title().length())
+                )
+                .toList();
+    }
+
+    private ReleaseMetadata aggregateGroup(List<MusicBrainzSearchResponse.Release> groupReleases) {
+        IntSummaryStatistics trackStats = groupReleases.stream()
+                .mapToInt(this::getTrackCount)
+                .filter(c -> c > 0)
+                .summaryStatistics();
+
+        int minTracks = trackStats.getCount() > 0 ? trackStats.getMin() : 0;
+        int maxTracks = trackStats.getCount() > 0 ? trackStats.getMax() : 0;
+
+        List<String> years = groupReleases.stream()
+                .map(r -> extractYear(r.date()))
+                .filter(y -> !y.equals("N/A"))
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<String> types = groupReleases.stream()
+                .map(r -> r.releaseGroup().primaryType())
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<String> tags = groupReleases.stream()
+                .flatMap(r -> r.tags() != null ? r.tags().stream() : Stream.empty())
+                .sorted(Comparator.comparingInt(MusicBrainzSearchResponse.Tag::count).reversed())
+                .map(t -> t.name().toLowerCase())
+                .distinct()
+                .toList(); // Keep all tags, display will be limited
+
+        var representative = groupReleases.stream().min(Comparator.comparingInt(MusicBrainzSearchResponse.Release::score).reversed()
+                        .thenComparing(r -> "Official".equals(r.status()) ? 0 : 1)
+                        .thenComparing(r -> r.date() != null ? r.date() : "9999")
+                        .thenComparingInt(r -> r.title().length()))
+                .orElse(groupReleases.getFirst());
+
+        String coverUrl = getCoverUrl(representative);
+
+        // Clean special characters that break file search
+        String cleanArtist = clean(getArtistName(representative));
+        String cleanTitle = clean(representative.title());
+
+        // Extract label from labelInfo
+        String label = groupReleases.stream()
+                .filter(r -> r.labelInfo() != null && !r.labelInfo().isEmpty())
+                .flatMap(r -> r.labelInfo().stream())
+                .filter(li -> li.label() != null && li.label().name() != null)
+                .map(li -> li.label().name())
+                .findFirst()
+                .orElse("");
+
+        return new ReleaseMetadata(
+                representative.id(),
+                representative.releaseGroup().id(),
+                SearchEngine.MUSICBRAINZ,
+                cleanArtist,
+                cleanTitle,
+                representative.score(),
+                years,
+                types,
+                minTracks,
+                maxTracks,
+                groupReleases.size(),
+                List.of(),
+                coverUrl,
+                tags,
+                label
+        );
+    }
+
+    @Nullable
+    private static String getCoverUrl(MusicBrainzSearchResponse.Release representative) {
+        return representative.releaseGroup() != null && representative.releaseGroup().id() != null
+                ? "https://coverartarchive.org/release-group/" + representative.releaseGroup().id() + "/front-500"
+                : null;
+    }
+
+    private int getTrackCount(MusicBrainzSearchResponse.Release r) {
+        if (r.trackCount() != null && r.trackCount() > 0) return r.trackCount();
+        if (r.media() != null) {
+            return r.media().stream()
+                    .mapToInt(m -> m.trackCount() != null ? m.trackCount() : 0)
+                    .sum();
+        }
+        return 0;
+    }
+
+    public String getArtistName(MusicBrainzSearchResponse.Release release) {
+        if (release.artistCredit() != null && !release.artistCredit().isEmpty()) {
+            // Combine multiple artists using joinphrase
+            StringBuilder artistBuilder = new StringBuilder();
+            var artistCredits = release.artistCredit();
+
+            for (int i = 0; i < artistCredits.size(); i++) {
+                var credit = artistCredits.get(i);
+                artistBuilder.append(credit.name());
+
+                // Add joinphrase if provided (e.g., " & ", " feat. ")
+                if (credit.joinphrase() != null && !credit.joinphrase().isEmpty()) {
+                    artistBuilder.append(credit.joinphrase());
+                }
+            }
+
+            return artistBuilder.toString().trim();
+        }
+        return "Unknown Artist";
+    }
+
+    public String extractYear(String date) {
+        if (date != null && date.length() >= 4) {
+            return date.substring(0, 4);
+        }
+        return "N/A";
+    }
+
+    public ReleaseMetadata mapReleaseDetails(MusicBrainzSearchResponse.Release release) {
+        List<String> years = List.of(extractYear(release.date()));
+        List<String> types = release.releaseGroup() != null && release.releaseGroup().primaryType() != null
+                ? List.of(release.releaseGroup().primaryType())
+                : List.of();
+
+        List<String> tags = release.tags() != null
+                ? release.tags().stream()
+                .sorted(Comparator.comparingInt(MusicBrainzSearchResponse.Tag::count).reversed())
+                .map(t -> t.name().toLowerCase())
+                .distinct()
+                .toList()
+                : List.of();
+
+        String coverUrl = getCoverUrl(release);
+        String cleanArtist = clean(getArtistName(release));
+        String cleanTitle = clean(release.title());
+
+        String label = release.labelInfo() != null && !release.labelInfo().isEmpty()
+                ? release.labelInfo().stream()
+                .filter(li -> li.label() != null && li.label().name() != null)
+                .map(li -> li.label().name())
+                .findFirst()
+                .orElse("")
+                : "";
+
+        int trackCount = getTrackCount(release);
+
+        List<TrackMetadata> tracks = mapTracks(release);
+
+        return new ReleaseMetadata(
+                release.id(),
+                release.releaseGroup() != null ? release.releaseGroup().id() : null,
+                SearchEngine.MUSICBRAINZ,
+                cleanArtist,
+                cleanTitle,
+                100, // No score for direct fetch
+                years,
+                types,
+                trackCount,
+                trackCount,
+                1,
+                tracks,
+                coverUrl,
+                tags,
+                label
+        );
+    }
+
+    public List<TrackMetadata> mapTracks(MusicBrainzSearchResponse.Release release) {
+        if (release.media() == null) {
+            log.warn("No media found for release: {}", release.id());
+            return List.of();
+        }
+
+        // Get album artist as fallback
+        String albumArtist = getArtistName(release);
+
+        return release.media().stream()
+                .flatMap(media -> media.tracks() != null ? media.tracks().stream() : Stream.empty())
+                .map(track -> {
+                    int trackNumber = track.position();
+                    String trackTitle = track.recording() != null ? track.recording().title() : track.title();
+
+                    // Extract per-track artist from recording.artistCredit when available
+                    String trackArtist = albumArtist; // Default to album artist
+
+                    if (track.recording() != null && track.recording().artistCredit() != null
+                            && !track.recording().artistCredit().isEmpty()) {
+                        // Combine multiple artists using joinphrase (e.g., "HATELOVE & Wanton")
+                        StringBuilder artistBuilder = new StringBuilder();
+                        var artistCredits = track.recording().artistCredit();
+
+                        for (int i = 0; i < artistCredits.size(); i++) {
+                            var credit = artistCredits.get(i);
+                            artistBuilder.append(credit.name());
+
+                            // Add joinphrase if provided (e.g., " & ", " feat. ")
+                            if (credit.joinphrase() != null && !credit.joinphrase().isEmpty()) {
+                                artistBuilder.append(credit.joinphrase());
+                            }
+                        }
+
+                        trackArtist = artistBuilder.toString().trim();
+                        log.debug("Using per-track artist from recording: '{}'", trackArtist);
+                    }
+
+                    Integer duration = track.length() != null ? Math.round(track.length() / 1000f) : null;
+                    return new TrackMetadata(trackNumber, trackArtist, trackTitle, duration);
+                })
+                .toList();
+    }
+
+    private String clean(String text) {
+        if (text == null || text.isBlank()) {
+            return text;
+        }
+        // Remove special characters that break file search
+        return text.replaceAll("[*?\\[\\]{}|<>\"'`]", "").trim();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.sashkomusic.mainagent.infrastracture.client.musicbrainz.exception.MusicBrainzSlotTimeoutException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the MusicBrainz request budget (one request per period) by priority class.
+ * Callers queue up for at most their class's {@code musicbrainz.scheduler.max-wait.*}, so bulk refreshes can
+ * wait behind chat searches for as long as it takes; within a class requests are served in arrival order.
+ * Tickets given up by their caller are skipped without spending a slot.
+ */
+@Slf4j
+@Component
+public class MusicBrainzRequestScheduler {
+
+    private final PriorityBlockingQueue<Ticket> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<MusicBrainzPriority, Timer> waitTimers = new EnumMap<>(MusicBrainzPriority.class);
+    private final Map<MusicBrainzPriority, Timer> timeoutTimers = new EnumMap<>(MusicBrainzPriority.class);
+    private final Map<MusicBrainzPriority, Duration> maxWaits = new EnumMap<>(MusicBrainzPriority.class);
+    private final Duration period;
+    private Thread dispatcher;
+
+    public MusicBrainzRequestScheduler(MeterRegistry meterRegistry,
+                                       @Value("${musicbrainz.scheduler.period:1s}") Duration period,
+                                       @Value("${musicbrainz.scheduler.max-wait.interactive:30s}") Duration interactiveMaxWait,
+                                       @Value("${musicbrainz.scheduler.max-wait.prefetch:2m}") Duration prefetchMaxWait,
+                                       @Value("${musicbrainz.scheduler.max-wait.background:6h}") Duration backgroundMaxWait) {
+        this.period = period;
+        maxWaits.put(MusicBrainzPriority.INTERACTIVE, interactiveMaxWait);
+        maxWaits.put(MusicBrainzPriority.PREFETCH, prefetchMaxWait);
+        maxWaits.put(MusicBrainzPriority.BACKGROUND, backgroundMaxWait);
+
+        for (MusicBrainzPriority priority : MusicBrainzPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            waitTimers.put(priority, waitTimer(meterRegistry, tag, "granted"));
+            timeoutTimers.put(priority, waitTimer(meterRegistry, tag, "timeout"));
+            Gauge.builder("musicbrainz.scheduler.queued", queue,
+                            q -> q.stream().filter(t -> t.priority == priority).count())
+                    .description("MusicBrainz requests waiting for a slot")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String priority, String outcome) {
+        return Timer.builder("musicbrainz.scheduler.wait")
+                .description("Time a MusicBrainz request waited for its slot")
+                .tag("priority", priority)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform()
+                .name("musicbrainz-scheduler")
+                .daemon(true)
+                .start(this::dispatchLoop);
+        log.info("MusicBrainz request scheduler started: 1 request per {}", period);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+    }
+
+    public <T> T execute(MusicBrainzPriority priority, Supplier<T> request) {
+        Ticket ticket = new Ticket(priority, sequence.incrementAndGet(), System.nanoTime());
+        queue.put(ticket);
+
+        try {
+            Duration maxWait = maxWaits.get(priority);
+            if (!ticket.granted.await(maxWait.toNanos(), TimeUnit.NANOSECONDS) && ticket.cancel()) {
+                queue.remove(ticket);
+                timeoutTimers.get(priority).record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+                log.warn("MusicBrainz {} request gave up after waiting {} for a slot", priority, maxWait);
+                throw new MusicBrainzSlotTimeoutException("Timed out waiting for MusicBrainz slot.");
+            }
+        } catch (InterruptedException e) {
+            if (ticket.cancel()) {
+                queue.remove(ticket);
+            }
+            Thread.currentThread().interrupt();
+            throw new MusicBrainzSlotTimeoutException("Interrupted while waiting for MusicBrainz slot.");
+        }
+
+        long waitedNanos = System.nanoTime() - ticket.enqueuedAt;
+        waitTimers.get(priority).record(waitedNanos, TimeUnit.NANOSECONDS);
+        log.debug("MusicBrainz {} request granted after {} ms", priority, TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+
+        return request.get();
+    }
+
+    private void dispatchLoop() {
+        long nextSlot = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                // Wait for the slot first so the highest priority ticket present at that moment wins it
+                long delay = nextSlot - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                Ticket ticket = queue.take();
+                if (!ticket.grant()) {
+                    continue;
+                }
+                nextSlot = System.nanoTime() + period.toNanos();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("MusicBrainz request scheduler stopped");
+    }
+
+    private static final class Ticket implements Comparable<Ticket> {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final MusicBrainzPriority priority;
+        private final long sequence;
+        private final long enqueuedAt;
+        private final CountDownLatch granted = new CountDownLatch(1);
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Ticket(MusicBrainzPriority priority, long sequence, long enqueuedAt) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            granted.countDown();
+            return true;
+        }
+
+        /**
+         * False if the slot was granted in the meantime; the caller then goes ahead with its request.
+         */
+        private boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        @Override
+        public int compareTo(Ticket other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -156,6 +156,7 @@ public record MusicBrainzSearchResponse(
             String id,
             String title,
             int position,
+            Integer length, // milliseconds
             Recording recording
     ) {
     }
@@ -0,0 +1,11 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz.exception;
+
+/**
+ * The request never got a MusicBrainz slot. Retrying would only queue it again, so it is neither
+ * retried nor counted by the circuit breaker.
+ */
+public class MusicBrainzSlotTimeoutException extends RuntimeException {
+    public MusicBrainzSlotTimeoutException(String message) {
+        super(message);
+    }
+}
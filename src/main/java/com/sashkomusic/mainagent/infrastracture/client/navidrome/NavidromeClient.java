@@ -2,6 +2,7 @@ package com.sashkomusic.mainagent.infrastracture.client.navidrome;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sashkomusic.mainagent.config.NavidromeConfig;
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
@@ -21,8 +22,10 @@ public class NavidromeClient {
     private final RestClient restClient;
     private final NavidromeConfig config;
 
-    public NavidromeClient(RestClient.Builder restClientBuilder, NavidromeConfig config) {
-        this.restClient = restClientBuilder.build();
+    public NavidromeClient(RestClient.Builder restClientBuilder, NavidromeConfig config, HttpClientFactory httpClients) {
+        this.restClient = restClientBuilder
+                .requestFactory(httpClients.requestFactory("navidrome"))
+                .build();
         this.config = config;
     }
 
@@ -1,5 +1,6 @@
 package com.sashkomusic.mainagent.infrastracture.client.songlink;
 
+import com.sashkomusic.mainagent.infrastracture.client.http.HttpClientFactory;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
@@ -12,9 +13,10 @@ public class SonglinkClient {
 
     private final RestClient client;
 
-    public SonglinkClient(RestClient.Builder builder) {
+    public SonglinkClient(RestClient.Builder builder, HttpClientFactory httpClients) {
         this.client = builder
                 .baseUrl("https://api.song.link/v1-alpha.1")
+                .requestFactory(httpClients.requestFactory("songlink"))
                 .defaultHeader("User-Agent", "SashkoMusicBot/1.0")
                 .build();
     }
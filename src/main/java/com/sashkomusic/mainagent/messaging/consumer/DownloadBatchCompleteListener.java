@@ -1,6 +1,10 @@
 package com.sashkomusic.mainagent.messaging.consumer;
 
 import com.sashkomusic.mainagent.api.telegram.TelegramChatBot;
+import com.sashkomusic.mainagent.domain.service.download.DownloadProgressTracker;
+import com.sashkomusic.mainagent.domain.service.download.DownloadSourceRouter;
+import com.sashkomusic.mainagent.domain.service.download.InFlightDownloadRegistry;
+import com.sashkomusic.mainagent.domain.service.download.SoulseekPeerStats;
 import com.sashkomusic.mainagent.domain.service.process.ProcessFolderFlowService;
 import com.sashkomusic.mainagent.messaging.consumer.dto.DownloadBatchCompleteDto;
 import lombok.RequiredArgsConstructor;
@@ -15,12 +19,28 @@ public class DownloadBatchCompleteListener {
 
     private final ProcessFolderFlowService processFolderFlowService;
     private final TelegramChatBot telegramBot;
+    private final DownloadProgressTracker progressTracker;
+    private final InFlightDownloadRegistry inFlightDownloads;
+    private final DownloadSourceRouter sourceRouter;
+    private final SoulseekPeerStats peerStats;
 
     @KafkaListener(topics = "download-batch-complete", groupId = "main-agent-group")
     public void handleBatchComplete(DownloadBatchCompleteDto batchComplete) {
         log.info("Received download batch complete for chatId={}, releaseId={}, files={}",
                 batchComplete.chatId(), batchComplete.releaseId(), batchComplete.totalFiles());
 
+        // The only terminal download event: per-file errors don't finish the download, they lower its success rate
+        double successRate = progressTracker.successRate(batchComplete.chatId(), batchComplete.releaseId())
+                .orElse(batchComplete.totalFiles() > 0 ? 1 : 0);
+        peerStats.finished(batchComplete.chatId(), batchComplete.releaseId());
+        progressTracker.finish(batchComplete.chatId(), batchComplete.releaseId())
+                .ifPresent(progress -> telegramBot.sendResponse(batchComplete.chatId(), progress));
+        inFlightDownloads.finish(batchComplete.chatId(), batchComplete.releaseId()).ifPresent(finished -> {
+            sourceRouter.recordDownload(finished.releaseId(), finished.source(), successRate);
+            String message = successRate > 0 ? "✅ *скачалосі:* " + finished.name() : "🤡 **не получилосі скачати:** " + finished.name();
+            finished.waitingChats().forEach(chatId -> telegramBot.sendMessage(chatId, message));
+        });
+
         processFolderFlowService.process(batchComplete.chatId(), batchComplete.directoryPath())
                 .forEach(msg -> telegramBot.sendResponse(batchComplete.chatId(), msg));
     }
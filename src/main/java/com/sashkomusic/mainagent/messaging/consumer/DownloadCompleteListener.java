@@ -1,10 +1,13 @@
 package com.sashkomusic.mainagent.messaging.consumer;
 
 import com.sashkomusic.mainagent.api.telegram.TelegramChatBot;
+import com.sashkomusic.mainagent.domain.service.download.DownloadProgressTracker;
+import com.sashkomusic.mainagent.domain.service.download.SoulseekPeerStats;
 import com.sashkomusic.mainagent.messaging.consumer.dto.DownloadCompleteDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -13,18 +16,34 @@ import org.springframework.stereotype.Component;
 public class DownloadCompleteListener {
 
     private final TelegramChatBot chatBot;
+    private final DownloadProgressTracker progressTracker;
+    private final SoulseekPeerStats peerStats;
 
     @KafkaListener(topics = "download-complete", groupId = "main-agent-group")
     public void handleDownloadComplete(DownloadCompleteDto complete) {
         log.info("Received download complete for chatId={}: {} ({} MB)",
                 complete.chatId(), complete.filename(), complete.sizeMB());
 
+        var releaseId = progressTracker.resolveRelease(complete.chatId(), complete.releaseId());
+        if (releaseId.isPresent()) {
+            peerStats.fileCompleted(complete.chatId(), releaseId.get(), complete.sizeMB());
+            progressTracker.fileCompleted(complete.chatId(), releaseId.get(), complete.sizeMB())
+                    .ifPresent(progress -> chatBot.sendResponse(complete.chatId(), progress));
+            return;
+        }
+
         String displayName = extractDisplayName(complete.filename());
         String message = "✅ `%s` (%d MB)".formatted(displayName, complete.sizeMB());
 
         chatBot.sendMessage(complete.chatId(), message);
     }
 
+    @Scheduled(fixedDelayString = "${download.progress.edit-interval:PT3S}")
+    public void flushDownloadProgress() {
+        progressTracker.flushPending()
+                .forEach(res -> chatBot.sendResponse(res.chatId(), res.response()));
+    }
+
     private String extractDisplayName(String filename) {
         if (filename == null) {
             return "";
@@ -1,6 +1,8 @@
 package com.sashkomusic.mainagent.messaging.consumer;
 
 import com.sashkomusic.mainagent.api.telegram.TelegramChatBot;
+import com.sashkomusic.mainagent.domain.service.download.DownloadProgressTracker;
+import com.sashkomusic.mainagent.domain.service.download.SoulseekPeerStats;
 import com.sashkomusic.mainagent.messaging.consumer.dto.DownloadErrorDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,11 +15,22 @@ import org.springframework.stereotype.Component;
 public class DownloadErrorListener {
 
     private final TelegramChatBot chatBot;
+    private final DownloadProgressTracker progressTracker;
+    private final SoulseekPeerStats peerStats;
 
     @KafkaListener(topics = "download-errors", groupId = "main-agent-group")
     public void handleDownloadError(DownloadErrorDto error) {
         log.error("Received download error for chatId={}: {}", error.chatId(), error.errorMessage());
 
+        // Errors are per file: the download's outcome is recorded once, on batch complete
+        var releaseId = progressTracker.resolveRelease(error.chatId(), error.releaseId());
+        if (releaseId.isPresent()) {
+            peerStats.fileFailed(error.chatId(), releaseId.get());
+            progressTracker.fileFailed(error.chatId(), releaseId.get(), error.errorMessage())
+                    .ifPresent(progress -> chatBot.sendResponse(error.chatId(), progress));
+            return;
+        }
+
         String message = "🤡 **не получилосі скачати:**\n" + error.errorMessage();
         chatBot.sendMessage(error.chatId(), message);
     }
@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.consumer;
 
 import com.sashkomusic.mainagent.api.telegram.TelegramChatBot;
+import com.sashkomusic.mainagent.domain.service.process.LibraryIndex;
 import com.sashkomusic.mainagent.messaging.consumer.dto.LibraryProcessingCompleteDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,12 +14,17 @@ import org.springframework.stereotype.Component;
 public class LibraryProcessingCompleteListener {
 
     private final TelegramChatBot chatBot;
+    private final LibraryIndex libraryIndex;
 
     @KafkaListener(topics = "library-processing-complete", groupId = "main-agent-group")
     public void handleLibraryProcessingComplete(LibraryProcessingCompleteDto result) {
         log.info("Received library processing result: chatId={}, success={}, processedFiles={}",
                 result.chatId(), result.success(), result.processedFiles().size());
 
+        if (result.success()) {
+            libraryIndex.add(result.directoryPath());
+        }
+
         String message = buildResultMessage(result);
         chatBot.sendMessage(result.chatId(), message);
     }
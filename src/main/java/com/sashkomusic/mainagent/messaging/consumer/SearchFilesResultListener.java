@@ -6,6 +6,8 @@ import com.sashkomusic.mainagent.messaging.consumer.dto.SearchFilesResultDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,9 +18,17 @@ public class SearchFilesResultListener {
     private final MusicDownloadFlowService musicDownloadFlowService;
     private final TelegramChatBot telegramBot;
 
-    @KafkaListener(topics = "file-search-results", groupId = "main-agent-group")
-    public void handleSearchResults(SearchFilesResultDto dto) {
-        var response = musicDownloadFlowService.handleSearchResults(dto);
-        response.forEach(res -> telegramBot.sendResponse(dto.chatId(), res));
+    private final SearchResultsAnalysisPipeline analysisPipeline;
+
+    @KafkaListener(topics = "file-search-results", groupId = "main-agent-group",
+            containerFactory = "manualAckContainerFactory")
+    public void handleSearchResults(SearchFilesResultDto dto, Acknowledgment ack) throws InterruptedException {
+        analysisPipeline.submit(dto, ack);
+    }
+
+    @Scheduled(fixedDelayString = "${download.multi-engine.deadline-check-interval:PT5S}")
+    public void expireMultiEngineSearches() {
+        musicDownloadFlowService.expireMultiEngineSearches()
+                .forEach(res -> telegramBot.sendResponse(res.chatId(), res.response()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.sashkomusic.mainagent.messaging.consumer;
+
+import com.sashkomusic.mainagent.api.telegram.TelegramChatBot;
+import com.sashkomusic.mainagent.api.telegram.dto.BotResponse;
+import com.sashkomusic.mainagent.domain.service.download.MusicDownloadFlowService;
+import com.sashkomusic.mainagent.messaging.consumer.dto.SearchFilesResultDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs download search result analysis (tracklist fetch, scoring, AI summary, Telegram sends) off the
+ * Kafka listener thread. Results for one chat stay in order; different chats proceed in parallel on a
+ * fixed pool. At most {@code max-in-flight} results are buffered, after that the listener blocks, which
+ * pauses consumption instead of queueing without bound. The record is acked once its result is sent, or
+ * once the chat has been told that handling it failed.
+ */
+@Slf4j
+@Component
+public class SearchResultsAnalysisPipeline {
+
+    private final MusicDownloadFlowService musicDownloadFlowService;
+    private final TelegramChatBot telegramBot;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Map<Long, CompletableFuture<Void>> chatTails = new ConcurrentHashMap<>();
+    private final Timer queueTimer;
+    private final Timer analysisTimer;
+    private final Timer sendTimer;
+
+    public SearchResultsAnalysisPipeline(MusicDownloadFlowService musicDownloadFlowService,
+                                         TelegramChatBot telegramBot,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${download.results.analysis.threads:4}") int threads,
+                                         @Value("${download.results.analysis.max-in-flight:64}") int maxInFlight) {
+        this.musicDownloadFlowService = musicDownloadFlowService;
+        this.telegramBot = telegramBot;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("search-results-", 0).factory());
+        this.inFlight = new Semaphore(maxInFlight);
+        this.queueTimer = stageTimer(meterRegistry, "queue");
+        this.analysisTimer = stageTimer(meterRegistry, "analysis");
+        this.sendTimer = stageTimer(meterRegistry, "send");
+        Gauge.builder("download.results.in-flight", inFlight, s -> maxInFlight - s.availablePermits())
+                .description("Search results accepted from Kafka but not yet answered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called on the listener thread; blocks only while the pipeline is full.
+     */
+    public void submit(SearchFilesResultDto dto, Acknowledgment ack) throws InterruptedException {
+        inFlight.acquire();
+        long queuedAt = System.nanoTime();
+        CompletableFuture<Void> next = chatTails.compute(dto.chatId(), (chatId, tail) ->
+                (tail == null ? CompletableFuture.<Void>completedFuture(null) : tail)
+                        .thenRunAsync(() -> process(dto, ack, queuedAt), executor));
+        next.whenComplete((ignored, error) -> chatTails.remove(dto.chatId(), next));
+    }
+
+    private void process(SearchFilesResultDto dto, Acknowledgment ack, long queuedAt) {
+        try {
+            queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+
+            long analysisStart = System.nanoTime();
+            List<BotResponse> responses = musicDownloadFlowService.handleSearchResults(dto);
+            long sendStart = System.nanoTime();
+            analysisTimer.record(sendStart - analysisStart, TimeUnit.NANOSECONDS);
+
+            responses.forEach(res -> telegramBot.sendResponse(dto.chatId(), res));
+            sendTimer.record(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.error("Failed to handle {} search results for releaseId={} chatId={}",
+                    dto.source(), dto.releaseId(), dto.chatId(), e);
+            if (dto.isFinal()) {
+                reportFailure(dto);
+            }
+        } finally {
+            inFlight.release();
+            ack.acknowledge();
+        }
+    }
+
+    /**
+     * The record is acked anyway, so the user is told instead of waiting for a card that never comes.
+     */
+    private void reportFailure(SearchFilesResultDto dto) {
+        try {
+            telegramBot.sendResponse(dto.chatId(), BotResponse.text(
+                    "❌ шось ся не получило з опціями (%s)...спробуй ше раз".formatted(dto.source().getName().toLowerCase())));
+        } catch (Exception e) {
+            log.error("Could not report failed search results to chatId={}: {}", dto.chatId(), e.getMessage());
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("download.results.stage")
+                .description("Time spent per stage of download search result handling")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Search result analysis still running at shutdown; unacked records will be redelivered");
+            executor.shutdownNow();
+        }
+    }
+}
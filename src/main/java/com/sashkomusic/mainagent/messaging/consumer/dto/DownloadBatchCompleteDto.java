@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.consumer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 import java.util.List;
 
@@ -11,5 +12,5 @@ public record DownloadBatchCompleteDto(
         String directoryPath,
         List<String> allFiles,
         int totalFiles
-) {
+) implements ReleaseTraceable {
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.sashkomusic.mainagent.messaging.consumer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 @JsonTypeName("download_complete")
 public record DownloadCompleteDto(
         long chatId,
         String filename,
-        long sizeMB
-) {
+        long sizeMB,
+        String releaseId // absent from older downloaders
+) implements ReleaseTraceable {
 }
\ No newline at end of file
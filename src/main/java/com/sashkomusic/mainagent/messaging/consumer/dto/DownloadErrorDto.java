@@ -1,10 +1,12 @@
 package com.sashkomusic.mainagent.messaging.consumer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 @JsonTypeName("download_error")
 public record DownloadErrorDto(
         long chatId,
-        String errorMessage
-) {
+        String errorMessage,
+        String releaseId // absent from older downloaders
+) implements ReleaseTraceable {
 }
\ No newline at end of file
@@ -2,13 +2,32 @@ package com.sashkomusic.mainagent.messaging.consumer.dto;
 
 import com.sashkomusic.mainagent.domain.model.DownloadEngine;
 import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 import java.util.List;
 
+/**
+ * Search results for one engine. Downloaders that stream send sequence-numbered partial messages
+ * followed by one with {@code last = true}; a message without a sequence carries the full result.
+ */
 public record SearchFilesResultDto(
         long chatId,
         String releaseId,
         DownloadEngine source,
         List<DownloadOption> results,
-        boolean autoDownload) {
-}
\ No newline at end of file
+        boolean autoDownload,
+        Integer sequence,
+        Boolean last) implements ReleaseTraceable {
+
+    public boolean isPartial() {
+        return sequence != null;
+    }
+
+    public boolean isFinal() {
+        return sequence == null || Boolean.TRUE.equals(last);
+    }
+
+    public SearchFilesResultDto withResults(List<DownloadOption> results) {
+        return new SearchFilesResultDto(chatId, releaseId, source, results, autoDownload, null, null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.AddCommentTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,10 +15,11 @@ public class AddCommentTaskProducer {
     public static final String TOPIC = "add-comment-tasks";
 
     private final KafkaTemplate<String, AddCommentTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(AddCommentTaskDto task) {
         log.info("Sending add comment task: trackId={}, comment={}, chatId={}",
                 task.trackId(), task.comment(), task.chatId());
-        kafkaTemplate.send(TOPIC, task);
+        kafkaTemplate.send(traces.record(TOPIC, task));
     }
 }
@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.DownloadCancelTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,10 +15,11 @@ public class DownloadCancelTaskProducer {
     public static final String TOPIC = "download-cancel-tasks";
 
     private final KafkaTemplate<String, DownloadCancelTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(DownloadCancelTaskDto task) {
         log.info("Sending cancel download task: chatId={}, releaseId={}",
                 task.chatId(), task.releaseId());
-        kafkaTemplate.send(TOPIC, task);
+        kafkaTemplate.send(traces.record(TOPIC, task));
     }
 }
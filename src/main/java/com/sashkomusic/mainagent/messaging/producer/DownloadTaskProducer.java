@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.DownloadFilesTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,9 +15,10 @@ public class DownloadTaskProducer {
     public static final String TASKS_TOPIC = "files-download-tasks";
 
     private final KafkaTemplate<String, DownloadFilesTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(DownloadFilesTaskDto task) {
         log.info("Sending task to download release files: {}", task);
-        kafkaTemplate.send(TASKS_TOPIC, task);
+        kafkaTemplate.send(traces.record(TASKS_TOPIC, task));
     }
 }
@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.ProcessLibraryTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -13,9 +14,10 @@ public class ProcessLibraryTaskProducer {
     public static final String TASKS_TOPIC = "process-library-tasks";
 
     private final KafkaTemplate<String, ProcessLibraryTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(ProcessLibraryTaskDto dto) {
         log.info("Sending library processing task: masterId={}, files={}", dto.metadata().masterId(), dto.downloadedFiles().size());
-        kafkaTemplate.send(TASKS_TOPIC, dto);
+        kafkaTemplate.send(traces.record(TASKS_TOPIC, dto));
     }
 }
\ No newline at end of file
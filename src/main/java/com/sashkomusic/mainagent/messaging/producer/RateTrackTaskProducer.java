@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.RateTrackTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,10 +15,11 @@ public class RateTrackTaskProducer {
     public static final String TOPIC = "rate-track-tasks";
 
     private final KafkaTemplate<String, RateTrackTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(RateTrackTaskDto task) {
         log.info("Sending rate track task: trackId={}, rating={}, chatId={}",
                 task.trackId(), task.rating(), task.chatId());
-        kafkaTemplate.send(TOPIC, task);
+        kafkaTemplate.send(traces.record(TOPIC, task));
     }
 }
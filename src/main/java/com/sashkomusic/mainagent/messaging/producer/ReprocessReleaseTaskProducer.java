@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.ReprocessReleaseTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -13,10 +14,11 @@ public class ReprocessReleaseTaskProducer {
     public static final String TASKS_TOPIC = "reprocess-release-tasks";
 
     private final KafkaTemplate<String, ReprocessReleaseTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(ReprocessReleaseTaskDto dto) {
         log.info("Sending reprocess task: directory={}, source={}",
                 dto.directoryPath(), dto.metadata().source());
-        kafkaTemplate.send(TASKS_TOPIC, dto);
+        kafkaTemplate.send(traces.record(TASKS_TOPIC, dto));
     }
 }
@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.SearchFilesTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -13,9 +14,10 @@ public class SearchFilesTaskProducer {
     public static final String TASKS_TOPIC = "files-search-tasks";
 
     private final KafkaTemplate<String, SearchFilesTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(SearchFilesTaskDto task) {
         log.info("Sending task to search release files: {}", task);
-        kafkaTemplate.send(TASKS_TOPIC, task);
+        kafkaTemplate.send(traces.record(TASKS_TOPIC, task));
     }
 }
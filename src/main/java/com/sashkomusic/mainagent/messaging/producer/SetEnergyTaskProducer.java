@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.SetEnergyTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,10 +15,11 @@ public class SetEnergyTaskProducer {
     public static final String TOPIC = "set-energy-tasks";
 
     private final KafkaTemplate<String, SetEnergyTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(SetEnergyTaskDto task) {
         log.info("Sending set energy task: trackId={}, energy={}, chatId={}",
                 task.trackId(), task.energy(), task.chatId());
-        kafkaTemplate.send(TOPIC, task);
+        kafkaTemplate.send(traces.record(TOPIC, task));
     }
 }
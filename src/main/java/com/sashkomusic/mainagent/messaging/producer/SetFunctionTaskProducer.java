@@ -1,6 +1,7 @@
 package com.sashkomusic.mainagent.messaging.producer;
 
 import com.sashkomusic.mainagent.messaging.producer.dto.SetFunctionTaskDto;
+import com.sashkomusic.mainagent.messaging.tracing.DownloadTraceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -14,10 +15,11 @@ public class SetFunctionTaskProducer {
     public static final String TOPIC = "set-function-tasks";
 
     private final KafkaTemplate<String, SetFunctionTaskDto> kafkaTemplate;
+    private final DownloadTraceRegistry traces;
 
     public void send(SetFunctionTaskDto task) {
         log.info("Sending set function task: trackId={}, function={}, chatId={}",
                 task.trackId(), task.function(), task.chatId());
-        kafkaTemplate.send(TOPIC, task);
+        kafkaTemplate.send(traces.record(TOPIC, task));
     }
 }
@@ -1,12 +1,13 @@
 package com.sashkomusic.mainagent.messaging.producer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 @JsonTypeName("download_cancel")
 public record DownloadCancelTaskDto(
         long chatId,
         String releaseId
-) {
+) implements ReleaseTraceable {
     public static DownloadCancelTaskDto of(long chatId, String releaseId) {
         return new DownloadCancelTaskDto(chatId, releaseId);
     }
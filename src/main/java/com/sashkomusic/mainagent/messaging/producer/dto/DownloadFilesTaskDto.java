@@ -2,12 +2,13 @@ package com.sashkomusic.mainagent.messaging.producer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 @JsonTypeName("download_request")
 public record DownloadFilesTaskDto(
         long chatId,
         String releaseId,
-        DownloadOption downloadOption) {
+        DownloadOption downloadOption) implements ReleaseTraceable {
 
     public static DownloadFilesTaskDto of(long chatId, String releaseId, DownloadOption downloadOption) {
         return new DownloadFilesTaskDto(chatId, releaseId, downloadOption);
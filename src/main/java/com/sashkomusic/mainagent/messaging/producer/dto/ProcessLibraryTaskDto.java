@@ -2,6 +2,7 @@ package com.sashkomusic.mainagent.messaging.producer.dto;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 import java.util.List;
 
@@ -11,8 +12,13 @@ public record ProcessLibraryTaskDto(
         String directoryPath,
         List<String> downloadedFiles,
         ReleaseMetadata metadata
-) {
+) implements ReleaseTraceable {
     public static ProcessLibraryTaskDto of(long chatId, String directoryPath, List<String> files, ReleaseMetadata metadata) {
         return new ProcessLibraryTaskDto(chatId, directoryPath, files, metadata);
     }
+
+    @Override
+    public String releaseId() {
+        return metadata != null ? metadata.id() : null;
+    }
 }
\ No newline at end of file
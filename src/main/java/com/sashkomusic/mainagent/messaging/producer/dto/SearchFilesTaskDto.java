@@ -1,19 +1,27 @@
 package com.sashkomusic.mainagent.messaging.producer.dto;
 
 import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.messaging.tracing.ReleaseTraceable;
 
 public record SearchFilesTaskDto(
         long chatId,
         String releaseId,
         String artist,
         String title,
-        DownloadEngine source) {
+        DownloadEngine source,
+        boolean partialResults, // the agent merges sequence-numbered partial results
+        boolean lowPriority // speculative; may wait behind searches a user is waiting for
+) implements ReleaseTraceable {
 
     public static SearchFilesTaskDto of(long chatId, String releaseId, String artist, String title) {
-        return new SearchFilesTaskDto(chatId, releaseId, artist, title, null);
+        return new SearchFilesTaskDto(chatId, releaseId, artist, title, null, true, false);
     }
 
     public static SearchFilesTaskDto of(long chatId, String releaseId, String artist, String title, DownloadEngine source) {
-        return new SearchFilesTaskDto(chatId, releaseId, artist, title, source);
+        return new SearchFilesTaskDto(chatId, releaseId, artist, title, source, true, false);
+    }
+
+    public static SearchFilesTaskDto speculative(long chatId, String releaseId, String artist, String title, DownloadEngine source) {
+        return new SearchFilesTaskDto(chatId, releaseId, artist, title, source, true, true);
     }
 }
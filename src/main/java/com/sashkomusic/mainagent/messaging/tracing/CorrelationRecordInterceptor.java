@@ -0,0 +1,33 @@
+package com.sashkomusic.mainagent.messaging.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Picks up the correlation id of every consumed record; Spring Boot applies it to all listener container factories.
+ */
+@Component
+@RequiredArgsConstructor
+public class CorrelationRecordInterceptor implements RecordInterceptor<Object, Object> {
+
+    private final DownloadTraceRegistry traces;
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        Header header = record.headers().lastHeader(DownloadTraceRegistry.HEADER);
+        String correlationId = header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+        traces.received(record.topic(), correlationId, record.value());
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        traces.clear();
+    }
+}
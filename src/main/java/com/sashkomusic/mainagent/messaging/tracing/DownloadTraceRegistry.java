@@ -0,0 +1,263 @@
+package com.sashkomusic.mainagent.messaging.tracing;
+
+import com.sashkomusic.mainagent.messaging.producer.SearchFilesTaskProducer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Correlation ids for the download pipeline (search → results → download → batch complete → library processing).
+ * Producers stamp the {@value #HEADER} header, listeners pick it up; every hop lands on the release's timeline
+ * and in the {@code download.pipeline.stage} timer, tagged with the previous and current step.
+ * The id comes from the record being handled on this thread, else the release's active trace; a file
+ * search task starts a new trace when the release has none.
+ */
+@Slf4j
+@Component
+public class DownloadTraceRegistry {
+
+    public static final String HEADER = "x-correlation-id";
+
+    private static final String FINAL_TOPIC = "library-processing-complete";
+    private static final int MAX_EVENTS = 100;
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Duration idleTimeout;
+    private final Map<String, Trace> traces;
+    private final Map<String, String> activeByRelease = new HashMap<>();
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    public DownloadTraceRegistry(MeterRegistry meterRegistry,
+                                 @Value("${download.tracing.max-traces:500}") int maxTraces,
+                                 @Value("${download.tracing.idle-timeout:PT1H}") Duration idleTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.idleTimeout = idleTimeout;
+        this.traces = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Trace> eldest) {
+                if (size() <= maxTraces) {
+                    return false;
+                }
+                activeByRelease.remove(eldest.getValue().releaseKey(), eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Wraps an outgoing payload in a record carrying the correlation id.
+     */
+    public <T> ProducerRecord<String, T> record(String topic, T payload) {
+        ProducerRecord<String, T> record = new ProducerRecord<>(topic, payload);
+        record.headers().add(HEADER, sent(topic, payload).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    /**
+     * Called for every consumed record before its listener runs; the id stays current on this thread until {@link #clear()}.
+     */
+    public void received(String topic, String correlationId, Object payload) {
+        String id = correlationId;
+        synchronized (this) {
+            if (id == null && payload instanceof ReleaseTraceable traceable) {
+                id = activeTrace(traceable, Instant.now());
+            }
+            if (id != null) {
+                Trace trace = traces.get(id);
+                if (trace == null && payload instanceof ReleaseTraceable traceable && traceable.releaseId() != null) {
+                    trace = begin(id, traceable);
+                }
+                if (trace != null) {
+                    append(trace, "received:" + topic);
+                    if (FINAL_TOPIC.equals(topic)) {
+                        trace.finished = true;
+                        activeByRelease.remove(trace.releaseKey(), id);
+                    }
+                }
+            }
+        }
+        CURRENT.set(id);
+    }
+
+    public void clear() {
+        CURRENT.remove();
+    }
+
+    public synchronized List<TraceSummary> recent() {
+        List<TraceSummary> summaries = new ArrayList<>();
+        traces.values().forEach(trace -> summaries.add(trace.summary()));
+        return summaries.reversed();
+    }
+
+    /**
+     * Timeline by correlation id, or the latest one for a release id.
+     */
+    public synchronized Optional<TraceView> find(String id) {
+        Trace trace = traces.get(id);
+        if (trace == null) {
+            trace = traces.values().stream()
+                    .filter(t -> id.equals(t.releaseId))
+                    .reduce((first, second) -> second)
+                    .orElse(null);
+        }
+        return Optional.ofNullable(trace).map(Trace::view);
+    }
+
+    private synchronized String sent(String topic, Object payload) {
+        Instant now = Instant.now();
+        String id = CURRENT.get();
+        if (id == null && payload instanceof ReleaseTraceable traceable) {
+            id = activeTrace(traceable, now);
+            if (id == null && SearchFilesTaskProducer.TASKS_TOPIC.equals(topic) && traceable.releaseId() != null) {
+                id = UUID.randomUUID().toString();
+                begin(id, traceable);
+            }
+        }
+        if (id == null) {
+            // Not part of a download; still carries an id so downstream logs can be correlated
+            return UUID.randomUUID().toString();
+        }
+        Trace trace = traces.get(id);
+        if (trace != null) {
+            append(trace, "sent:" + topic);
+        }
+        return id;
+    }
+
+    private String activeTrace(ReleaseTraceable traceable, Instant now) {
+        if (traceable.releaseId() == null) {
+            return null;
+        }
+        String key = releaseKey(traceable.chatId(), traceable.releaseId());
+        String id = activeByRelease.get(key);
+        Trace trace = id != null ? traces.get(id) : null;
+        if (trace == null || trace.lastAt.plus(idleTimeout).isBefore(now)) {
+            activeByRelease.remove(key);
+            return null;
+        }
+        return id;
+    }
+
+    private Trace begin(String id, ReleaseTraceable traceable) {
+        Trace trace = new Trace(id, traceable.chatId(), traceable.releaseId(), Instant.now());
+        traces.put(id, trace);
+        activeByRelease.put(trace.releaseKey(), id);
+        log.debug("Download trace {} started for releaseId={}", id, traceable.releaseId());
+        return trace;
+    }
+
+    private void append(Trace trace, String stage) {
+        Instant now = Instant.now();
+        Event previous = trace.events.isEmpty() ? null : trace.events.getLast();
+        if (previous != null) {
+            timer(previous.stage, stage).record(Duration.between(trace.lastAt, now));
+        }
+        if (previous != null && previous.stage.equals(stage)) {
+            // Streamed partial results and per-file events collapse into one line
+            previous.count++;
+            previous.lastAt = now;
+        } else if (trace.events.size() < MAX_EVENTS) {
+            trace.events.add(new Event(stage, now));
+        }
+        trace.lastAt = now;
+    }
+
+    private Timer timer(String from, String to) {
+        return timers.computeIfAbsent(from + "|" + to, k -> Timer.builder("download.pipeline.stage")
+                .description("Time between consecutive steps of a release download across Kafka topics")
+                .tag("from", from)
+                .tag("to", to)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String releaseKey(long chatId, String releaseId) {
+        return chatId + ":" + releaseId;
+    }
+
+    public record TraceSummary(String correlationId, long chatId, String releaseId, Instant startedAt,
+                               String lastStage, long elapsedMs, boolean finished) {
+    }
+
+    public record TraceView(TraceSummary summary, List<Step> steps) {
+    }
+
+    /**
+     * @param atMs    offset from the start of the trace
+     * @param deltaMs time since the previous step
+     * @param count   how many consecutive times this step happened
+     */
+    public record Step(String stage, long atMs, long deltaMs, int count, long lastAtMs) {
+    }
+
+    private static class Event {
+        private final String stage;
+        private final Instant at;
+        private Instant lastAt;
+        private int count = 1;
+
+        private Event(String stage, Instant at) {
+            this.stage = stage;
+            this.at = at;
+            this.lastAt = at;
+        }
+    }
+
+    private static class Trace {
+        private final String id;
+        private final long chatId;
+        private final String releaseId;
+        private final Instant startedAt;
+        private final List<Event> events = new ArrayList<>();
+        private Instant lastAt;
+        private boolean finished;
+
+        private Trace(String id, long chatId, String releaseId, Instant startedAt) {
+            this.id = id;
+            this.chatId = chatId;
+            this.releaseId = releaseId;
+            this.startedAt = startedAt;
+            this.lastAt = startedAt;
+        }
+
+        private String releaseKey() {
+            return DownloadTraceRegistry.releaseKey(chatId, releaseId);
+        }
+
+        private TraceSummary summary() {
+            String lastStage = events.isEmpty() ? null : events.getLast().stage;
+            return new TraceSummary(id, chatId, releaseId, startedAt, lastStage,
+                    Duration.between(startedAt, lastAt).toMillis(), finished);
+        }
+
+        private TraceView view() {
+            List<Step> steps = new ArrayList<>();
+            Instant previous = startedAt;
+            for (Event event : events) {
+                steps.add(new Step(event.stage,
+                        Duration.between(startedAt, event.at).toMillis(),
+                        Duration.between(previous, event.at).toMillis(),
+                        event.count,
+                        Duration.between(startedAt, event.lastAt).toMillis()));
+                previous = event.lastAt;
+            }
+            return new TraceView(summary(), steps);
+        }
+    }
+}
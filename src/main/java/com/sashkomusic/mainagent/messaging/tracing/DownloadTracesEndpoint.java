@@ -0,0 +1,31 @@
+package com.sashkomusic.mainagent.messaging.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/downloadtraces} lists recent download traces, {@code /actuator/downloadtraces/{id}}
+ * shows one timeline by correlation id or release id.
+ */
+@Component
+@Endpoint(id = "downloadtraces")
+@RequiredArgsConstructor
+public class DownloadTracesEndpoint {
+
+    private final DownloadTraceRegistry traces;
+
+    @ReadOperation
+    public List<DownloadTraceRegistry.TraceSummary> traces() {
+        return traces.recent();
+    }
+
+    @ReadOperation
+    public DownloadTraceRegistry.TraceView trace(@Selector String id) {
+        return traces.find(id).orElse(null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sashkomusic.mainagent.messaging.tracing;
+
+/**
+ * Kafka payload that belongs to one release download, so its trace can be found without the header.
+ */
+public interface ReleaseTraceable {
+
+    long chatId();
+
+    String releaseId();
+}
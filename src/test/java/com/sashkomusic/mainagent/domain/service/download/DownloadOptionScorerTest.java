@@ -0,0 +1,89 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import com.sashkomusic.mainagent.domain.model.DownloadEngine;
+import com.sashkomusic.mainagent.domain.model.DownloadOption;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownloadOptionScorerTest {
+
+    private final DownloadOptionScorer scorer = new DownloadOptionScorer();
+
+    private final DownloadOptionScorer.Expectation release = scorer.expect(release(List.of(
+            new TrackMetadata(1, "Burial", "Archangel", 239),
+            new TrackMetadata(2, "Burial", "Near Dark", 235),
+            new TrackMetadata(3, "Burial", "Ghost Hardware", 293))));
+
+    @Test
+    void completeLosslessRipIsPerfect() {
+        var score = scorer.score(option(
+                file("Burial - Untrue/01 - Burial - Archangel.flac", 239, null, 24),
+                file("Burial - Untrue/02 - Burial - Near Dark.flac", 236, null, 24),
+                file("Burial - Untrue/03 - Burial - Ghost Hardware.flac", 292, null, 24),
+                file("Burial - Untrue/cover.jpg", 0, null, null)), release);
+
+        assertThat(score.suitability()).isEqualTo(DownloadFlowHandler.Suitability.PERFECT);
+        assertThat(score.matchedTracks()).isEqualTo(3);
+        assertThat(score.extraTracks()).isZero();
+    }
+
+    @Test
+    void missingBonusAndWrongLengthTracksAreDetected() {
+        var score = scorer.score(option(
+                file("01 Archangel.flac", 239, null, 16),
+                file("02 Near Dark (Radio Edit).flac", 180, null, 16),
+                file("04 Bonus Dub.flac", 300, null, 16)), release);
+
+        assertThat(score.matchedTracks()).isEqualTo(2);
+        assertThat(score.missingTracks()).isEqualTo(1);
+        assertThat(score.extraTracks()).isEqualTo(1);
+        assertThat(score.durationMismatches()).isEqualTo(1);
+        assertThat(score.suitability()).isEqualTo(DownloadFlowHandler.Suitability.WARNING);
+    }
+
+    @Test
+    void losslessOutranksLossyForTheSameTracks() {
+        var flac = scorer.score(option(
+                file("01. Archangel.flac", 239, null, 16),
+                file("02. Near Dark.flac", 235, null, 16),
+                file("03. Ghost Hardware.flac", 293, null, 16)), release);
+        var mp3 = scorer.score(option(
+                file("01. Archangel.mp3", 239, 320, null),
+                file("02. Near Dark.mp3", 235, 320, null),
+                file("03. Ghost Hardware.mp3", 293, 320, null)), release);
+
+        assertThat(mp3.suitability()).isEqualTo(DownloadFlowHandler.Suitability.GOOD);
+        assertThat(flac.score()).isGreaterThan(mp3.score());
+    }
+
+    @Test
+    void fallsBackToTrackCountWithoutTracklist() {
+        var expectation = scorer.expect(release(List.of()));
+
+        var score = scorer.score(option(
+                file("a.flac", 100, null, 16),
+                file("b.flac", 100, null, 16)), expectation);
+
+        assertThat(score.suitability()).isEqualTo(DownloadFlowHandler.Suitability.GOOD);
+    }
+
+    private static ReleaseMetadata release(List<TrackMetadata> tracks) {
+        return new ReleaseMetadata("mb:1", null, SearchEngine.MUSICBRAINZ, "Burial", "Untrue", 100,
+                List.of("2007"), List.of("Album"), 1, 1, 1, tracks, null, List.of(), "Hyperdub");
+    }
+
+    private static DownloadOption option(DownloadOption.FileItem... files) {
+        return new DownloadOption("1", DownloadEngine.SOULSEEK, "Burial - Untrue", 300, List.of(files), Map.of());
+    }
+
+    private static DownloadOption.FileItem file(String name, int length, Integer bitRate, Integer bitDepth) {
+        return new DownloadOption.FileItem(name, 1_000_000, bitRate, bitDepth, bitDepth == null ? null : 44100, length);
+    }
+}
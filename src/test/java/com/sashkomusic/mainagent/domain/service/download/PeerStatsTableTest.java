@@ -0,0 +1,72 @@
+package com.sashkomusic.mainagent.domain.service.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PeerStatsTableTest {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+    private static final PeerStatsTable.Estimate PRIOR = new PeerStatsTable.Estimate(0.8, 60, 1024, 0);
+
+    @Test
+    void unknownPeerGetsThePrior() {
+        var table = new PeerStatsTable(14 * DAY, 100, PRIOR);
+
+        assertThat(table.estimate(42, 0)).isEqualTo(PRIOR);
+    }
+
+    @Test
+    void failuresLowerSuccessRateWithoutTouchingTimings() {
+        var table = new PeerStatsTable(14 * DAY, 100, PRIOR);
+
+        table.observe(42, 0, false, Double.NaN, Double.NaN);
+        table.observe(42, 0, false, Double.NaN, Double.NaN);
+
+        var estimate = table.estimate(42, 0);
+        assertThat(estimate.successRate()).isLessThan(0.5);
+        assertThat(estimate.ttfbSeconds()).isEqualTo(60);
+        assertThat(estimate.throughputKBps()).isEqualTo(1024);
+        assertThat(estimate.samples()).isEqualTo(2);
+    }
+
+    @Test
+    void partlyFailedDownloadCountsAsMostlyFailed() {
+        var table = new PeerStatsTable(14 * DAY, 100, PRIOR);
+
+        table.observe(42, 0, 0.1, 600, 50);
+
+        assertThat(table.estimate(42, 0).successRate()).isCloseTo(0.8 + 0.3 * (0.1 - 0.8), within(1e-9));
+    }
+
+    @Test
+    void statisticsDecayBackToThePrior() {
+        var table = new PeerStatsTable(DAY, 100, PRIOR);
+        for (int i = 0; i < 10; i++) {
+            table.observe(7, 0, true, 600, 50);
+        }
+        double fresh = table.estimate(7, 0).ttfbSeconds();
+
+        assertThat(table.estimate(7, DAY).ttfbSeconds()).isCloseTo(60 + (fresh - 60) / 2, within(1e-9));
+        assertThat(table.estimate(7, 30 * DAY).ttfbSeconds()).isCloseTo(60, within(1e-3));
+    }
+
+    @Test
+    void growsAndEvictsLeastRecentlyUpdatedPeers() {
+        var table = new PeerStatsTable(DAY, 64, PRIOR);
+        for (long peer = 1; peer <= 64; peer++) {
+            table.observe(peer, peer, true, 10, 2048);
+        }
+        assertThat(table.size()).isEqualTo(64);
+
+        table.observe(1000, 1000, true, 10, 2048);
+
+        assertThat(table.size()).isEqualTo(33);
+        assertThat(table.estimate(1, 1000).samples()).isZero();
+        assertThat(table.estimate(64, 1000).samples()).isEqualTo(1);
+        assertThat(table.estimate(1000, 1000).samples()).isEqualTo(1);
+    }
+}
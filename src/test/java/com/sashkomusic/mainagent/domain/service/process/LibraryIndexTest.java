@@ -0,0 +1,81 @@
+package com.sashkomusic.mainagent.domain.service.process;
+
+import com.sashkomusic.mainagent.config.LibraryConfig;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LibraryIndexTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void findsOwnedReleasesByIdAndByNormalizedArtistTitle() throws Exception {
+        writeMetadata("Gas", "Pop", "mb-pop", "m-pop");
+        var index = open();
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.find(release(SearchEngine.MUSICBRAINZ, "mb-pop", null, "Someone", "Else"))).isPresent();
+        assertThat(index.find(release(SearchEngine.MUSICBRAINZ, "mb-pop-2", "m-pop", "Someone", "Else"))).isPresent();
+        assertThat(index.find(release(SearchEngine.DISCOGS, "2", null, "GAS", "Pop!"))).isPresent();
+        assertThat(index.find(release(SearchEngine.DISCOGS, "3", null, "Gas", "Zauberberg"))).isEmpty();
+    }
+
+    @Test
+    void keepsReleaseAndMasterIdsOfEachEngineApart() throws Exception {
+        writeMetadata("Gas", "Pop", "123", "456", "DISCOGS");
+        var index = open();
+
+        index.rebuild();
+
+        assertThat(index.find(release(SearchEngine.DISCOGS, "456", null, "Someone", "Else"))).isEmpty();
+        assertThat(index.find(release(SearchEngine.MUSICBRAINZ, "123", null, "Someone", "Else"))).isEmpty();
+        assertThat(index.find(release(SearchEngine.DISCOGS, "123", null, "Someone", "Else"))).isPresent();
+        assertThat(index.find(release(SearchEngine.DISCOGS, "789", "456", "Someone", "Else"))).isPresent();
+    }
+
+    @Test
+    void addsProcessedReleaseReportedUnderAnotherMount() throws Exception {
+        var index = open();
+        index.rebuild();
+        writeMetadata("Burial", "Untrue", "mb-untrue", null);
+
+        index.add("/mnt/other/lib/Burial/Untrue");
+
+        assertThat(index.find(release(SearchEngine.MUSICBRAINZ, "mb-untrue", null, "Burial", "Untrue")))
+                .hasValueSatisfying(owned -> assertThat(owned.directory()).isEqualTo(root.resolve("Burial/Untrue")));
+    }
+
+    private LibraryIndex open() {
+        var config = new LibraryConfig();
+        config.setRootPath(root.toString());
+        return new LibraryIndex(config, new ReleaseMetadataReader());
+    }
+
+    private void writeMetadata(String artist, String title, String sourceId, String masterId) throws Exception {
+        writeMetadata(artist, title, sourceId, masterId, "MUSICBRAINZ");
+    }
+
+    private void writeMetadata(String artist, String title, String sourceId, String masterId, String source) throws Exception {
+        Path directory = Files.createDirectories(root.resolve(artist).resolve(title));
+        Files.writeString(directory.resolve(".release-metadata.json"), """
+                {"metadata_version": 1, "source_id": "%s", "master_id": %s, "source": "%s",
+                 "artist": "%s", "title": "%s", "track_count": 5}
+                """.formatted(sourceId, masterId == null ? "null" : "\"" + masterId + "\"", source, artist, title));
+    }
+
+    private static ReleaseMetadata release(SearchEngine source, String id, String masterId, String artist, String title) {
+        return new ReleaseMetadata(id, masterId, source, artist, title, 0, List.of(), List.of(),
+                0, 0, 1, List.of(), null, List.of(), "");
+    }
+}
@@ -0,0 +1,77 @@
+package com.sashkomusic.mainagent.domain.service.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sashkomusic.mainagent.domain.model.ReleaseMetadata;
+import com.sashkomusic.mainagent.domain.model.SearchEngine;
+import com.sashkomusic.mainagent.domain.model.TrackMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReleaseRegistryTest {
+
+    private static final String URL = "https://kompakt.bandcamp.com/album/pop-ambient-2025";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shortIdsAndReleasesSurviveReopening() throws Exception {
+        var first = open();
+        String id = first.shortId("bandcamp", URL);
+        String other = first.shortId("bandcamp", URL + "-2");
+
+        assertThat(first.shortId("bandcamp", URL)).isEqualTo(id);
+        assertThat(id).isNotEqualTo(other);
+        assertThat(("SEARCH_ALT:" + id + ":BANDCAMP").length()).isLessThan(64);
+
+        first.remember(release(id, List.of()));
+        first.remember(release(id, List.of(new TrackMetadata(1, "Gas", "Tal 90 — Ünter"))));
+        first.close();
+
+        var reopened = open();
+        assertThat(reopened.shortId("bandcamp", URL)).isEqualTo(id);
+        assertThat(reopened.reference(id)).contains(URL);
+        assertThat(reopened.shortId("bandcamp", URL + "-3")).isNotIn(id, other);
+        assertThat(reopened.find(id)).hasValueSatisfying(release -> {
+            assertThat(release.masterId()).isEqualTo(URL);
+            assertThat(release.trackTitles()).containsExactly("Tal 90 — Ünter");
+        });
+        assertThat(reopened.find("bandcamp:nope")).isEmpty();
+        reopened.close();
+    }
+
+    @Test
+    void unchangedReleaseIsRefreshedBeforeItExpires() throws Exception {
+        var mapper = new ObjectMapper();
+        Path log = directory.resolve("releases.jsonl");
+        var release = release("bandcamp:1", List.of());
+        long savedLongAgo = Instant.now().minus(Duration.ofDays(20)).getEpochSecond();
+        Files.writeString(log, mapper.writeValueAsString(new ReleaseRegistry.Entry("bandcamp:1", null, release, savedLongAgo)) + "\n");
+
+        var registry = open();
+        registry.remember(release);
+        registry.remember(release);
+        registry.close();
+
+        assertThat(Files.readAllLines(log)).hasSize(2);
+    }
+
+    private ReleaseRegistry open() throws Exception {
+        var registry = new ReleaseRegistry(new ObjectMapper(), directory.resolve("releases.jsonl").toString(), Duration.ofDays(30));
+        registry.load();
+        return registry;
+    }
+
+    private ReleaseMetadata release(String id, List<TrackMetadata> tracks) {
+        return new ReleaseMetadata(id, URL, SearchEngine.BANDCAMP, "Gas", "Pop Ambient 2025", 80,
+                List.of("2025"), List.of("Album"), tracks.size(), 0, 1, tracks, null, List.of("ambient"), "");
+    }
+}
@@ -0,0 +1,46 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiscogsDumpImporterTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    void importsDumpAndAnswersCatnoAndLabelLookups() throws Exception {
+        Path releases = Path.of(getClass().getResource("/discogs/discogs_20250101_releases.xml").toURI());
+        Path labels = Path.of(getClass().getResource("/discogs/discogs_20250101_labels.xml").toURI());
+
+        long imported = new DiscogsDumpImporter().importDump(releases, labels, indexDirectory);
+        assertThat(imported).isEqualTo(3);
+
+        try (var index = DiscogsDumpIndex.open(indexDirectory)) {
+            var byCatno = index.findByCatno("sk-032", 10);
+            assertThat(byCatno).singleElement().satisfies(record -> {
+                assertThat(record.id()).isEqualTo(1);
+                assertThat(record.artist()).isEqualTo("The Persuader");
+                assertThat(record.title()).isEqualTo("Stockholm");
+                assertThat(record.year()).isEqualTo("1999");
+                assertThat(record.format()).isEqualTo("Vinyl");
+                assertThat(record.masterId()).isEqualTo(5427);
+            });
+
+            assertThat(index.findByCatno("CK63628", 10))
+                    .extracting(DiscogsDumpRecord::title)
+                    .containsExactly("Profound Sounds Vol. 1");
+
+            // Sublabel releases come with the parent label
+            assertThat(index.findByLabel("Svek", 10))
+                    .extracting(DiscogsDumpRecord::artist)
+                    .containsExactly("The Persuader", "Mr. James Barth & A.D.");
+
+            assertThat(index.findByCatno("nope-1", 10)).isEmpty();
+        }
+    }
+}
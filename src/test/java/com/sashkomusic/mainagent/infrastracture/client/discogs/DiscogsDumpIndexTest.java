@@ -0,0 +1,46 @@
+package com.sashkomusic.mainagent.infrastracture.client.discogs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscogsDumpIndexTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    void findsEveryKeyWhenBucketsAreSplitIntoSlots() throws Exception {
+        try (var writer = new DiscogsDumpIndex.Writer(indexDirectory)) {
+            for (int i = 0; i < 50_000; i++) {
+                writer.write(new DiscogsDumpRecord(i, "Artist " + i, "Title " + i, "Label " + (i % 700),
+                        "CAT-" + i, "2001", "Vinyl", 0));
+            }
+        }
+
+        try (var index = DiscogsDumpIndex.open(indexDirectory)) {
+            for (int i = 0; i < 50_000; i += 997) {
+                assertThat(index.findByCatno("cat " + i, 10))
+                        .extracting(DiscogsDumpRecord::id)
+                        .containsExactly((long) i);
+            }
+            assertThat(index.findByLabel("Label 5", 1000)).hasSize(72);
+            assertThat(index.findByCatno("CAT-50000", 10)).isEmpty();
+        }
+    }
+
+    @Test
+    void refusesIndexWrittenInTheOldFormat() throws Exception {
+        try (var writer = new DiscogsDumpIndex.Writer(indexDirectory)) {
+            writer.write(new DiscogsDumpRecord(1, "A", "T", "L", "C-1", "2001", "Vinyl", 0));
+        }
+        Files.delete(indexDirectory.resolve(DiscogsDumpIndex.FORMAT_FILE));
+
+        assertThatThrownBy(() -> DiscogsDumpIndex.open(indexDirectory)).hasMessageContaining("outdated format");
+    }
+}
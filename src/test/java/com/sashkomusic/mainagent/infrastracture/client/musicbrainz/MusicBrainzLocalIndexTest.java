@@ -0,0 +1,97 @@
+package com.sashkomusic.mainagent.infrastracture.client.musicbrainz;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sashkomusic.mainagent.domain.model.DateRange;
+import com.sashkomusic.mainagent.domain.model.MetadataSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MusicBrainzLocalIndexTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private MusicBrainzLocalIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream fixture = getClass().getResourceAsStream("/musicbrainz/releases.jsonl")) {
+            Files.copy(fixture, dumpDirectory.resolve("releases.jsonl"));
+        }
+        index = new MusicBrainzLocalIndex(new ObjectMapper(), dumpDirectory.toString());
+        index.refresh();
+    }
+
+    @Test
+    void findsReleaseByArtistAndTitle() {
+        var results = index.search(request("aphex twin", "Selected Ambient Works (Remastered)", "", DateRange.empty()));
+
+        assertThat(results).extracting(MusicBrainzSearchResponse.Release::title)
+                .containsExactly("Selected Ambient Works 85-92");
+        assertThat(results.getFirst().media().getFirst().tracks()).hasSize(2);
+    }
+
+    @Test
+    void appliesFiltersAndRecordingSearch() {
+        assertThat(index.search(request("Aphex Twin", "", "", DateRange.single(2001))))
+                .extracting(MusicBrainzSearchResponse.Release::title)
+                .containsExactly("Druqks");
+        assertThat(index.search(request("", "", "roygbiv", DateRange.empty())))
+                .extracting(MusicBrainzSearchResponse.Release::title)
+                .containsExactly("Music Has the Right to Children");
+        assertThat(index.search(request("Boards of Canada", "Druqks", "", DateRange.empty()))).isEmpty();
+    }
+
+    @Test
+    void picksUpChangedAndRemovedDumpsIncrementally() throws IOException {
+        Path extra = dumpDirectory.resolve("extra.jsonl");
+        Files.writeString(extra, """
+                {"id":"extra-1","title":"Geogaddi","date":"2002-02-18","artist-credit":[{"name":"Boards of Canada","joinphrase":""}],"release-group":{"id":"rg-extra-1","title":"Geogaddi"}}
+                """);
+        index.refresh();
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search(request("Boards of Canada", "Geogaddi", "", DateRange.empty()))).hasSize(1);
+
+        Files.writeString(extra, """
+                {"id":"extra-2","title":"Tomorrow's Harvest","date":"2013-06-05","artist-credit":[{"name":"Boards of Canada","joinphrase":""}],"release-group":{"id":"rg-extra-2","title":"Tomorrow's Harvest"}}
+                """);
+        Files.setLastModifiedTime(extra, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        index.refresh();
+
+        assertThat(index.findById("extra-1")).isEmpty();
+        assertThat(index.findById("extra-2")).isPresent();
+
+        Files.delete(extra);
+        index.refresh();
+
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void ranksCloserTitlesFirst() throws IOException {
+        Files.writeString(dumpDirectory.resolve("extra.jsonl"), """
+                {"id":"extra-1","title":"Geogaddi Live Sessions","date":"2001-01-01","artist-credit":[{"name":"Boards of Canada","joinphrase":""}],"release-group":{"id":"rg-extra-1","title":"Geogaddi Live Sessions"}}
+                {"id":"extra-2","title":"Geogaddi","date":"2002-02-18","artist-credit":[{"name":"Boards of Canada","joinphrase":""}],"release-group":{"id":"rg-extra-2","title":"Geogaddi"}}
+                """);
+        index.refresh();
+
+        assertThat(index.search(request("Boards of Canada", "Geogaddi", "", DateRange.empty())))
+                .extracting(MusicBrainzSearchResponse.Release::title)
+                .containsExactly("Geogaddi", "Geogaddi Live Sessions");
+    }
+
+    private MetadataSearchRequest request(String artist, String release, String recording, DateRange dateRange) {
+        return MetadataSearchRequest.create(artist, release, recording, dateRange,
+                null, null, null, null, null, null, null, null);
+    }
+}